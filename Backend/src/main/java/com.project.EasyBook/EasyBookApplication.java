@@ -2,8 +2,10 @@ package com.project.EasyBook;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.PropertySource;
 
 @SpringBootApplication
+@PropertySource("classpath:easybook-defaults.properties")
 public class EasyBookApplication {
 
 	public static void main(String[] args) {
@@ -1,9 +1,51 @@
 package com.project.EasyBook.cache;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 @EnableCaching
 public class CacheConfig {
+
+    public static final String MOVIES = "movies";
+    public static final String SHOWS_BY_MOVIE = "shows-by-movie";
+    public static final String CITIES_BY_MOVIE = "cities-by-movie";
+    public static final String SHOW_HEADERS = "show-headers";
+    public static final String CHAT_ANSWERS = "chat-answers";
+    public static final String RESPONSE_BODIES = "response-bodies";
+
+    public static final List<String> CATALOG_REGIONS = List.of(MOVIES, SHOWS_BY_MOVIE, CITIES_BY_MOVIE, SHOW_HEADERS, RESPONSE_BODIES);
+
+    // Caffeine specs, overridable per region with easybook.cache.regions.<name>
+    private static final Map<String, String> DEFAULT_SPECS = new LinkedHashMap<>();
+
+    static {
+        DEFAULT_SPECS.put(MOVIES, "maximumSize=16,expireAfterWrite=10m");
+        DEFAULT_SPECS.put(SHOWS_BY_MOVIE, "maximumSize=2000,expireAfterWrite=2m");
+        DEFAULT_SPECS.put(CITIES_BY_MOVIE, "maximumSize=2000,expireAfterWrite=30m");
+        DEFAULT_SPECS.put(SHOW_HEADERS, "maximumSize=5000,expireAfterAccess=30m");
+        DEFAULT_SPECS.put(CHAT_ANSWERS, "maximumSize=1000,expireAfterWrite=1h");
+        DEFAULT_SPECS.put(RESPONSE_BODIES, "maximumSize=2000,expireAfterAccess=30m");
+    }
+
+    @Bean
+    public CacheManager cacheManager(Environment environment) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Only the regions below exist, a typo in a cache name fails instead of silently creating one
+        cacheManager.setCacheNames(List.of());
+        DEFAULT_SPECS.forEach((name, defaultSpec) -> {
+            String spec = environment.getProperty("easybook.cache.regions." + name, defaultSpec);
+            cacheManager.registerCustomCache(name, Caffeine.from(spec).recordStats().build());
+        });
+        return cacheManager;
+    }
 }
@@ -0,0 +1,51 @@
+package com.project.EasyBook.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class CacheEvictor {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    public void evictCatalog() {
+        CacheConfig.CATALOG_REGIONS.forEach(this::clear);
+        clear(CacheConfig.CHAT_ANSWERS);
+    }
+
+    public void evictShowListings() {
+        clear(CacheConfig.SHOWS_BY_MOVIE);
+    }
+
+    // Seat bookings change the available seat counts carried by the movie's shows
+    public void evictBooking(int movieId) {
+        Runnable evict = () -> {
+            Cache cache = cacheManager.getCache(CacheConfig.SHOWS_BY_MOVIE);
+            if (cache != null) {
+                cache.evict(movieId);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict.run();
+            }
+        });
+    }
+
+    private void clear(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
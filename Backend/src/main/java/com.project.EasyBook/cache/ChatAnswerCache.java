@@ -0,0 +1,309 @@
+package com.project.EasyBook.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * LLM answers keyed by a normalized form of the question, so "How do refunds work?"
+ * and "how do refunds work" share one entry. Concurrent misses on the same key wait
+ * for a single upstream call instead of each making their own, streamed or not: a
+ * streamed call queues every chunk for each of its waiters, which send them on their
+ * own threads. Size and TTL come from the chat-answers cache region.
+ */
+@Component
+public class ChatAnswerCache {
+
+    // Filler words only, question words and negations change the answer and are kept
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "the", "is", "are", "am", "was", "were", "be", "do", "does", "did",
+            "i", "me", "my", "you", "your", "we", "us", "our", "it", "its", "this", "that",
+            "to", "of", "for", "in", "on", "at", "with", "and", "or", "so", "just",
+            "please", "pls", "can", "could", "would", "will", "tell", "know", "about");
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Streams an answer, handing each text chunk to {@code onText} and stopping once
+     * {@code cancelled} turns true.
+     */
+    @FunctionalInterface
+    public interface Upstream {
+        void stream(Consumer<String> onText, BooleanSupplier cancelled) throws Exception;
+    }
+
+    private final ConcurrentHashMap<String, Call> inFlight = new ConcurrentHashMap<>();
+
+    public String get(String question) {
+        return cache().get(normalize(question), String.class);
+    }
+
+    /**
+     * Returns the cached answer or computes it once per key. Failures are not cached,
+     * they reach the caller and everyone who waited on the same call.
+     */
+    public String get(String question, Supplier<String> answer) {
+        String key = normalize(question);
+        Cache cache = cache();
+        String cached = cache.get(key, String.class);
+        if (cached != null) {
+            return cached;
+        }
+
+        Call call = new Call();
+        Call running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            // Keeps a streamed call going while only plain callers wait on it
+            running.follow(text -> { }, () -> false);
+            return await(running.result);
+        }
+        try {
+            // The previous call for this key may have finished between the lookup and putIfAbsent
+            String result = cache.get(key, String.class);
+            if (result == null) {
+                result = answer.get();
+                cache.put(key, result);
+            }
+            call.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            call.fail(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Streams the answer to {@code onText}, from the cache when it is there. Concurrent
+     * streams for the same key share one upstream call: a later caller first gets the
+     * text streamed so far, then the chunks as they arrive. The upstream call stops once
+     * every caller is cancelled, and only an answer that ran to the end is cached.
+     */
+    public void stream(String question, Upstream upstream, Consumer<String> onText, BooleanSupplier cancelled)
+            throws Exception {
+        String key = normalize(question);
+        Cache cache = cache();
+        String cached = cache.get(key, String.class);
+        if (cached != null) {
+            onText.accept(cached);
+            return;
+        }
+
+        Call call = new Call();
+        Call running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            if (running.follow(onText, cancelled).drain()) {
+                await(running.result);
+            }
+            return;
+        }
+        // The upstream call gets a thread of its own so that every caller, this one
+        // included, writes to its socket at its own pace
+        Listener listener = call.follow(onText, cancelled);
+        Thread.ofVirtual().name("chat-answer-stream").start(() -> {
+            try {
+                String result = cache.get(key, String.class);
+                if (result == null) {
+                    upstream.stream(call::publish, call::abandoned);
+                    result = call.text();
+                    if (!call.abandoned() && !result.isEmpty()) {
+                        cache.put(key, result);
+                    }
+                }
+                call.complete(result);
+            } catch (Exception e) {
+                call.fail(e);
+            } finally {
+                inFlight.remove(key, call);
+            }
+        });
+        if (!listener.drain()) {
+            return;
+        }
+        try {
+            call.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static String normalize(String question) {
+        String folded = Normalizer.normalize(question == null ? "" : question, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        List<String> kept = new ArrayList<>();
+        for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+                if (!STOPWORDS.contains(word)) {
+                    kept.add(word);
+                }
+            }
+        }
+        // A question made only of filler words still needs a key of its own
+        return String.join(" ", kept.isEmpty() ? words : kept);
+    }
+
+    private Cache cache() {
+        return cacheManager.getCache(CacheConfig.CHAT_ANSWERS);
+    }
+
+    private static String await(CompletableFuture<String> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * One upstream call and everyone waiting on it. The call's lock only covers appending
+     * a chunk and queueing it for each listener, so a caller that joins late gets the text
+     * so far before any newer chunk. Sending is left to each listener's own thread.
+     */
+    private static final class Call {
+
+        private final CompletableFuture<String> result = new CompletableFuture<>();
+        private final StringBuilder text = new StringBuilder();
+        private final List<Listener> listeners = new ArrayList<>();
+        private boolean done;
+
+        synchronized Listener follow(Consumer<String> onText, BooleanSupplier cancelled) {
+            Listener listener = new Listener(this, onText, cancelled);
+            if (!text.isEmpty()) {
+                listener.chunks.add(text.toString());
+            }
+            if (done) {
+                listener.chunks.add(Listener.END);
+            } else {
+                listeners.add(listener);
+            }
+            return listener;
+        }
+
+        synchronized void unfollow(Listener listener) {
+            listeners.remove(listener);
+        }
+
+        synchronized void publish(String chunk) {
+            text.append(chunk);
+            for (Listener listener : listeners) {
+                listener.chunks.add(chunk);
+            }
+        }
+
+        // A call that was not streamed hands its whole answer over as one chunk
+        void complete(String answer) {
+            synchronized (this) {
+                if (text.isEmpty() && !answer.isEmpty()) {
+                    publish(answer);
+                }
+                finish();
+            }
+            result.complete(answer);
+        }
+
+        void fail(Exception e) {
+            synchronized (this) {
+                finish();
+            }
+            result.completeExceptionally(e);
+        }
+
+        private void finish() {
+            done = true;
+            for (Listener listener : listeners) {
+                listener.chunks.add(Listener.END);
+            }
+            listeners.clear();
+        }
+
+        synchronized String text() {
+            return text.toString();
+        }
+
+        synchronized boolean abandoned() {
+            return listeners.stream().allMatch(Listener::stopped);
+        }
+    }
+
+    private static final class Listener {
+
+        // Marks the end of a call in a listener's queue, compared by identity
+        private static final String END = new String();
+        private static final long CANCEL_CHECK_MILLIS = 250;
+
+        private final Call call;
+        private final Consumer<String> onText;
+        private final BooleanSupplier cancelled;
+        private final BlockingQueue<String> chunks = new LinkedBlockingQueue<>();
+        private volatile RuntimeException failure;
+
+        Listener(Call call, Consumer<String> onText, BooleanSupplier cancelled) {
+            this.call = call;
+            this.onText = onText;
+            this.cancelled = cancelled;
+        }
+
+        /**
+         * Hands the queued chunks to {@code onText} on the calling thread until the call
+         * ends, or returns false once this listener is cancelled. A listener that fails
+         * stops receiving, the others keep going, and its failure is rethrown here.
+         */
+        boolean drain() throws InterruptedException {
+            while (true) {
+                String chunk = chunks.poll(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+                if (chunk == END) {
+                    break;
+                }
+                if (chunk == null) {
+                    if (cancelled.getAsBoolean()) {
+                        call.unfollow(this);
+                        return false;
+                    }
+                    continue;
+                }
+                if (!stopped()) {
+                    try {
+                        onText.accept(chunk);
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return true;
+        }
+
+        boolean stopped() {
+            return failure != null || cancelled.getAsBoolean();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.EasyBook.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the serialized JSON of catalog responses, plain and gzipped, so repeated reads
+ * skip Jackson entirely. Entries are tagged with the catalog content hash they were
+ * rendered from and re-rendered once the catalog moves on.
+ */
+@Component
+public class ResponseBodyCache {
+
+    // Below this the gzip framing costs more than it saves
+    private static final int MIN_GZIP_SIZE = 512;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    public Body get(String key, long contentHash, Supplier<?> body) {
+        Cache cache = cacheManager.getCache(CacheConfig.RESPONSE_BODIES);
+        Body cached = cache.get(key, Body.class);
+        if (cached != null && cached.contentHash() == contentHash) {
+            return cached;
+        }
+        Body rendered = render(contentHash, body.get());
+        cache.put(key, rendered);
+        return rendered;
+    }
+
+    private Body render(long contentHash, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            return new Body(contentHash, json, json.length < MIN_GZIP_SIZE ? null : gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    public record Body(long contentHash, byte[] json, byte[] gzip) {
+    }
+}
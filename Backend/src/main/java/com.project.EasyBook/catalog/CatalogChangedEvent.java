@@ -0,0 +1,19 @@
+package com.project.EasyBook.catalog;
+
+/**
+ * Published after shows are scheduled so the catalog snapshot is rebuilt. Listeners run
+ * after the surrounding transaction commits. Movies and theaters have no write path in
+ * the application, rows edited in the database only show up with the timed refresh.
+ */
+public class CatalogChangedEvent {
+
+    private final String reason;
+
+    public CatalogChangedEvent(String reason) {
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,280 @@
+package com.project.EasyBook.catalog;
+
+import com.project.EasyBook.entity.Movie;
+import com.project.EasyBook.entity.Show;
+import com.project.EasyBook.entity.Theater;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Immutable view of movies, theaters and shows with the lookups the catalog and chat
+ * endpoints need already indexed. A new instance is built for every catalog change
+ * and published as a whole, readers never see a partially updated graph.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final Instant builtAt;
+    private final long contentHash;
+    private final List<Movie> movies;
+    private final List<Theater> theaters;
+    private final Map<Integer, Movie> moviesById;
+    private final Map<String, Movie> moviesByTitle;
+    private final Map<Integer, Show> showsById;
+    private final Map<Integer, MovieListing> listingsByMovie;
+    private final Map<String, List<Theater>> theatersByCity;
+    private final List<String> cities;
+    private final int showCount;
+    private final LocalDateTime nextExpiry;
+    private final MovieSearchIndex searchIndex;
+    private final ChatQueryMatcher chatMatcher;
+
+    private CatalogSnapshot(long version, long contentHash, List<Movie> movies, List<Theater> theaters, List<Show> shows,
+                            CatalogSnapshot previous) {
+        this.version = version;
+        this.builtAt = Instant.now();
+        this.contentHash = contentHash;
+        this.movies = List.copyOf(movies);
+        this.theaters = List.copyOf(theaters);
+        this.showCount = shows.size();
+
+        Map<Integer, Movie> byId = new HashMap<>();
+        Map<String, Movie> byTitle = new LinkedHashMap<>();
+        for (Movie movie : this.movies) {
+            byId.put(movie.getMovieId(), movie);
+            if (movie.getTitle() != null) {
+                byTitle.putIfAbsent(movie.getTitle().toLowerCase(), movie);
+            }
+        }
+        this.moviesById = Collections.unmodifiableMap(byId);
+        this.moviesByTitle = Collections.unmodifiableMap(byTitle);
+        this.searchIndex = MovieSearchIndex.build(this.movies, previous == null ? null : previous.searchIndex);
+
+        Map<String, List<Theater>> byCity = new TreeMap<>();
+        for (Theater theater : this.theaters) {
+            if (theater.getCity() != null) {
+                byCity.computeIfAbsent(theater.getCity(), c -> new ArrayList<>()).add(theater);
+            }
+        }
+        byCity.replaceAll((city, list) -> List.copyOf(list));
+        this.theatersByCity = Collections.unmodifiableMap(byCity);
+        this.cities = List.copyOf(byCity.keySet());
+        this.chatMatcher = ChatQueryMatcher.build(this.movies, this.cities,
+                previous == null ? null : previous.chatMatcher);
+
+        Map<Integer, Show> showIndex = new HashMap<>();
+        Map<Integer, List<Show>> showsByMovie = new HashMap<>();
+        LocalDateTime earliestStart = null;
+        for (Show show : shows) {
+            showIndex.put(show.getShowId(), show);
+            if (show.getStartTime() != null && (earliestStart == null || show.getStartTime().isBefore(earliestStart))) {
+                earliestStart = show.getStartTime();
+            }
+            if (show.getMovie() != null && show.getTheater() != null) {
+                showsByMovie.computeIfAbsent(show.getMovie().getMovieId(), id -> new ArrayList<>()).add(show);
+            }
+        }
+        Map<Integer, MovieListing> listings = new HashMap<>();
+        showsByMovie.forEach((movieId, movieShows) -> listings.put(movieId, new MovieListing(movieShows)));
+        this.listingsByMovie = Collections.unmodifiableMap(listings);
+        this.showsById = Collections.unmodifiableMap(showIndex);
+        this.nextExpiry = earliestStart;
+    }
+
+    static CatalogSnapshot build(long version, List<Movie> movies, List<Theater> theaters, List<Show> shows,
+                                 CatalogSnapshot previous) {
+        List<Movie> sortedMovies = new ArrayList<>(movies);
+        sortedMovies.sort(Comparator.comparingInt(Movie::getMovieId));
+        List<Theater> sortedTheaters = new ArrayList<>(theaters);
+        sortedTheaters.sort(Comparator.comparingInt(Theater::getTheaterId));
+        List<Show> sortedShows = new ArrayList<>(shows);
+        sortedShows.sort(Comparator.comparingInt(Show::getShowId));
+        return new CatalogSnapshot(version, hash(sortedMovies, sortedTheaters, sortedShows),
+                sortedMovies, sortedTheaters, sortedShows, previous);
+    }
+
+    // Seat counts stay out of the hash, bookings must not change the catalog's ETag
+    static long hash(List<Movie> movies, List<Theater> theaters, List<Show> shows) {
+        long h = 17;
+        for (Movie m : movies) {
+            h = 31 * h + Objects.hash(m.getMovieId(), m.getTitle(), m.getGenre(), m.getLang(), m.getDuration());
+        }
+        for (Theater t : theaters) {
+            h = 31 * h + Objects.hash(t.getTheaterId(), t.getName(), t.getCity());
+        }
+        for (Show s : shows) {
+            h = 31 * h + Objects.hash(s.getShowId(),
+                    s.getMovie() == null ? null : s.getMovie().getMovieId(),
+                    s.getTheater() == null ? null : s.getTheater().getTheaterId(),
+                    s.getTiming(), s.getStartTime());
+        }
+        return h;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getBuiltAt() {
+        return builtAt;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Strong validator for responses rendered from this snapshot. It is derived from the
+     * content rather than the local version number, so every instance holding the same
+     * catalog hands out the same tag.
+     */
+    public String getETag() {
+        return "\"" + Long.toHexString(contentHash) + "\"";
+    }
+
+    public List<Movie> movies() {
+        return movies;
+    }
+
+    public List<Theater> theaters() {
+        return theaters;
+    }
+
+    public Optional<Movie> movie(int movieId) {
+        return Optional.ofNullable(moviesById.get(movieId));
+    }
+
+    public Optional<Movie> movieByTitle(String title) {
+        return title == null ? Optional.empty() : Optional.ofNullable(moviesByTitle.get(title.toLowerCase()));
+    }
+
+    /**
+     * Movies matching the query by title, genre or language, best match first.
+     */
+    public List<Movie> searchMovies(String query, int limit) {
+        return searchIndex.search(query, limit).stream().map(moviesById::get).toList();
+    }
+
+    /**
+     * Intent keywords, movie and city found in a lowercased chat message.
+     */
+    public ChatQueryMatcher.Match matchChatQuery(String input) {
+        return chatMatcher.match(input);
+    }
+
+    public List<String> cities() {
+        return cities;
+    }
+
+    public List<Theater> theatersInCity(String city) {
+        return theatersByCity.getOrDefault(city, List.of());
+    }
+
+    public int showCount() {
+        return showCount;
+    }
+
+    /**
+     * Start time of the earliest show in this snapshot, the point from which it carries
+     * an expired show. Null when no show has a start time.
+     */
+    public LocalDateTime getNextExpiry() {
+        return nextExpiry;
+    }
+
+    public Optional<Show> show(int showId) {
+        return Optional.ofNullable(showsById.get(showId));
+    }
+
+    public List<Show> showsForMovie(int movieId) {
+        return listing(movieId).shows;
+    }
+
+    public List<String> citiesForMovie(int movieId) {
+        return listing(movieId).cities;
+    }
+
+    public List<Theater> theatersForMovie(int movieId, String city) {
+        return listing(movieId).theatersByCity.getOrDefault(city, List.of());
+    }
+
+    public Map<String, List<Show>> showsForMovieByCity(int movieId) {
+        return listing(movieId).showsByCity;
+    }
+
+    public List<Show> showsForMovieAtTheater(int movieId, int theaterId) {
+        return listing(movieId).showsByTheater.getOrDefault(theaterId, List.of());
+    }
+
+    /**
+     * Shows of the movie starting in {@code [from, to)}, in start time order. Shows without
+     * a start time cannot be placed in a window and are left out.
+     */
+    public List<Show> showsForMovieBetween(int movieId, LocalDateTime from, LocalDateTime to) {
+        List<Show> timed = listing(movieId).showsByStart;
+        int lo = 0;
+        int hi = timed.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (timed.get(mid).getStartTime().isBefore(from)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        int end = lo;
+        while (end < timed.size() && timed.get(end).getStartTime().isBefore(to)) {
+            end++;
+        }
+        return timed.subList(lo, end);
+    }
+
+    private MovieListing listing(int movieId) {
+        return listingsByMovie.getOrDefault(movieId, MovieListing.EMPTY);
+    }
+
+    private static final class MovieListing {
+
+        static final MovieListing EMPTY = new MovieListing(List.of());
+
+        final List<Show> shows;
+        final List<String> cities;
+        final Map<String, List<Show>> showsByCity;
+        final Map<String, List<Theater>> theatersByCity;
+        final Map<Integer, List<Show>> showsByTheater;
+        final List<Show> showsByStart;
+
+        MovieListing(List<Show> shows) {
+            this.shows = List.copyOf(shows);
+            this.showsByStart = shows.stream()
+                    .filter(show -> show.getStartTime() != null)
+                    .sorted(Comparator.comparing(Show::getStartTime).thenComparingInt(Show::getShowId))
+                    .toList();
+
+            Map<String, List<Show>> byCity = new TreeMap<>();
+            Map<String, Map<Integer, Theater>> theaters = new TreeMap<>();
+            Map<Integer, List<Show>> byTheater = new HashMap<>();
+            for (Show show : shows) {
+                Theater theater = show.getTheater();
+                byTheater.computeIfAbsent(theater.getTheaterId(), id -> new ArrayList<>()).add(show);
+                if (theater.getCity() != null) {
+                    byCity.computeIfAbsent(theater.getCity(), c -> new ArrayList<>()).add(show);
+                    theaters.computeIfAbsent(theater.getCity(), c -> new LinkedHashMap<>())
+                            .putIfAbsent(theater.getTheaterId(), theater);
+                }
+            }
+
+            byCity.replaceAll((city, list) -> List.copyOf(list));
+            byTheater.replaceAll((id, list) -> List.copyOf(list));
+            Map<String, List<Theater>> theatersByCity = new TreeMap<>();
+            theaters.forEach((city, byId) -> theatersByCity.put(city, List.copyOf(byId.values())));
+
+            this.showsByCity = Collections.unmodifiableMap(byCity);
+            this.cities = List.copyOf(byCity.keySet());
+            this.theatersByCity = Collections.unmodifiableMap(theatersByCity);
+            this.showsByTheater = Collections.unmodifiableMap(byTheater);
+        }
+    }
+}
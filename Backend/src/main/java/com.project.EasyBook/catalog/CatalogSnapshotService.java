@@ -0,0 +1,149 @@
+package com.project.EasyBook.catalog;
+
+import com.project.EasyBook.cache.CacheEvictor;
+import com.project.EasyBook.entity.Show;
+import com.project.EasyBook.repository.MovieRepository;
+import com.project.EasyBook.repository.ShowRepository;
+import com.project.EasyBook.repository.TheaterRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current {@link CatalogSnapshot} behind a single volatile reference.
+ * Rebuilds on {@link CatalogChangedEvent}, which only show scheduling publishes, and on
+ * the {@code easybook.catalog.refresh-interval} timer. Movies and theaters are only
+ * ever edited directly in the database, so the timer is what picks those up. A rebuild
+ * that finds identical content keeps the current snapshot and its version.
+ * Seat counts are not part of the snapshot's content: bookings record them in a per-show
+ * overlay instead, so they neither rebuild the snapshot nor change its ETag.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final long EXPIRY_SLACK_MILLIS = 1000;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private CacheEvictor cacheEvictor;
+
+    @Value("${easybook.catalog.refresh-interval:5m}")
+    private Duration refreshInterval;
+
+    private volatile CatalogSnapshot snapshot;
+    private ScheduledExecutorService refresher;
+    private ScheduledFuture<?> expiryRefresh;
+    // showId -> seat count committed since the show's snapshot entry was loaded
+    private final Map<Integer, Integer> availableSeats = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        refresher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("catalog-refresh").daemon(true).factory());
+        long interval = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refresher.shutdownNow();
+    }
+
+    public CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        return current != null ? current : refresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        cacheEvictor.evictCatalog();
+        refresh();
+    }
+
+    /**
+     * Records a show's seat count once the current transaction commits. The snapshot is
+     * left as it is, catalog readers pick the count up through {@link #availableSeats(Show)}.
+     */
+    public void recordAvailableSeats(int showId, int count) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    availableSeats.put(showId, count);
+                }
+            });
+        } else {
+            availableSeats.put(showId, count);
+        }
+    }
+
+    /**
+     * Latest committed seat count for a snapshot show, falling back to the count it was loaded with.
+     */
+    public int availableSeats(Show show) {
+        return availableSeats.getOrDefault(show.getShowId(), show.getAvailableSeats());
+    }
+
+    public synchronized CatalogSnapshot refresh() {
+        CatalogSnapshot previous = snapshot;
+        CatalogSnapshot next = CatalogSnapshot.build(
+                previous == null ? 1 : previous.getVersion() + 1,
+                movieRepository.findAllUncached(),
+                theaterRepository.findAll(),
+                showRepository.findUpcomingWithMovieAndTheater(LocalDateTime.now()),
+                previous);
+
+        if (previous != null && previous.getContentHash() == next.getContentHash()) {
+            return previous;
+        }
+        snapshot = next;
+        // Shows that dropped out of the catalog no longer need their count
+        availableSeats.keySet().removeIf(showId -> next.show(showId).isEmpty());
+        scheduleExpiryRefresh(next);
+        return next;
+    }
+
+    // Rebuild right after the earliest show starts so it drops out without waiting for the timer
+    private void scheduleExpiryRefresh(CatalogSnapshot current) {
+        if (expiryRefresh != null) {
+            expiryRefresh.cancel(false);
+            expiryRefresh = null;
+        }
+        LocalDateTime nextExpiry = current.getNextExpiry();
+        if (nextExpiry == null || refresher == null) {
+            return;
+        }
+        long delay = Math.max(0, Duration.between(LocalDateTime.now(), nextExpiry).toMillis()) + EXPIRY_SLACK_MILLIS;
+        expiryRefresh = refresher.schedule(this::refreshQuietly, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            System.err.println("Error refreshing catalog snapshot: " + e.getMessage());
+        }
+    }
+}
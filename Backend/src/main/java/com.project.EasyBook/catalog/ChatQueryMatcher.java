@@ -0,0 +1,224 @@
+package com.project.EasyBook.catalog;
+
+import com.project.EasyBook.entity.Movie;
+
+import java.util.*;
+
+/**
+ * Aho-Corasick automaton over the chat intent keywords, movie titles and city names.
+ * A single pass over the lowercased message reports every keyword it contains plus
+ * the best movie title and city mentioned. Keywords match anywhere, as the old
+ * {@code contains} checks did, titles and cities only on word boundaries.
+ * Immutable, and only rebuilt when titles or cities change.
+ */
+public final class ChatQueryMatcher {
+
+    public enum Keyword {
+        MOVIE("movie"), FILM("film"), CINEMA("cinema"), THEATER("theater"), THEATRE("theatre"),
+        SHOW("show"), SHOW_ME("show me"), SHOWS_FOR("shows for"),
+        TIME("time"), TIMING("timing"), TIMINGS("timings"),
+        BOOK("book"), RESERVE("reserve"), TICKET("ticket"),
+        LIST("list"), AVAILABLE("available");
+
+        private final String text;
+
+        Keyword(String text) {
+            this.text = text;
+        }
+    }
+
+    public record Match(Set<Keyword> keywords, Integer movieId, String city) {
+
+        public boolean has(Keyword keyword) {
+            return keywords.contains(keyword);
+        }
+
+        public boolean hasAny(Keyword... candidates) {
+            for (Keyword keyword : candidates) {
+                if (keywords.contains(keyword)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final int KEYWORD = 0;
+    private static final int MOVIE = 1;
+    private static final int CITY = 2;
+
+    private static final char[] NO_CHARS = new char[0];
+    private static final int[] NO_INTS = new int[0];
+
+    private final List<String> source;
+
+    // Pattern table, indexed by pattern id
+    private final int[] patternKind;
+    private final int[] patternValue;
+    private final int[] patternLength;
+    private final List<String> cityNames;
+
+    // Trie nodes: sorted edge labels with their targets, failure link and reported patterns
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] failure;
+    private final int[][] outputs;
+
+    private ChatQueryMatcher(List<String> source, List<Movie> movies, List<String> cities) {
+        this.source = source;
+        this.cityNames = List.copyOf(cities);
+
+        List<String> patterns = new ArrayList<>();
+        List<int[]> payloads = new ArrayList<>();
+        for (Keyword keyword : Keyword.values()) {
+            patterns.add(keyword.text);
+            payloads.add(new int[]{KEYWORD, keyword.ordinal()});
+        }
+        for (Movie movie : movies) {
+            if (movie.getTitle() != null && !movie.getTitle().isBlank()) {
+                patterns.add(movie.getTitle().trim().toLowerCase(Locale.ROOT));
+                payloads.add(new int[]{MOVIE, movie.getMovieId()});
+            }
+        }
+        for (int i = 0; i < cityNames.size(); i++) {
+            patterns.add(cityNames.get(i).trim().toLowerCase(Locale.ROOT));
+            payloads.add(new int[]{CITY, i});
+        }
+
+        patternKind = new int[patterns.size()];
+        patternValue = new int[patterns.size()];
+        patternLength = new int[patterns.size()];
+
+        List<TreeMap<Character, Integer>> edges = new ArrayList<>();
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        edges.add(new TreeMap<>());
+        nodeOutputs.add(new ArrayList<>());
+        for (int id = 0; id < patterns.size(); id++) {
+            String pattern = patterns.get(id);
+            patternKind[id] = payloads.get(id)[0];
+            patternValue[id] = payloads.get(id)[1];
+            patternLength[id] = pattern.length();
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < pattern.length(); i++) {
+                Integer next = edges.get(node).get(pattern.charAt(i));
+                if (next == null) {
+                    next = edges.size();
+                    edges.get(node).put(pattern.charAt(i), next);
+                    edges.add(new TreeMap<>());
+                    nodeOutputs.add(new ArrayList<>());
+                }
+                node = next;
+            }
+            nodeOutputs.get(node).add(id);
+        }
+
+        int nodeCount = edges.size();
+        edgeChars = new char[nodeCount][];
+        edgeTargets = new int[nodeCount][];
+        for (int node = 0; node < nodeCount; node++) {
+            TreeMap<Character, Integer> nodeEdges = edges.get(node);
+            char[] chars = nodeEdges.isEmpty() ? NO_CHARS : new char[nodeEdges.size()];
+            int[] targets = nodeEdges.isEmpty() ? NO_INTS : new int[nodeEdges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : nodeEdges.entrySet()) {
+                chars[i] = edge.getKey();
+                targets[i++] = edge.getValue();
+            }
+            edgeChars[node] = chars;
+            edgeTargets[node] = targets;
+        }
+
+        // Breadth-first, so a node's failure target already carries its inherited outputs
+        failure = new int[nodeCount];
+        outputs = new int[nodeCount][];
+        outputs[0] = NO_INTS;
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            List<Integer> own = nodeOutputs.get(node);
+            int[] inherited = outputs[failure[node]];
+            int[] merged = new int[own.size() + inherited.length];
+            for (int i = 0; i < own.size(); i++) {
+                merged[i] = own.get(i);
+            }
+            System.arraycopy(inherited, 0, merged, own.size(), inherited.length);
+            outputs[node] = merged;
+
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                int child = edgeTargets[node][i];
+                failure[child] = node == 0 ? 0 : step(failure[node], edgeChars[node][i]);
+                queue.add(child);
+            }
+        }
+    }
+
+    /**
+     * Returns {@code previous} when it was built over the same titles and cities.
+     */
+    static ChatQueryMatcher build(List<Movie> movies, List<String> cities, ChatQueryMatcher previous) {
+        List<String> source = new ArrayList<>();
+        for (Movie movie : movies) {
+            source.add(movie.getMovieId() + ":" + movie.getTitle());
+        }
+        source.addAll(cities);
+        if (previous != null && previous.source.equals(source)) {
+            return previous;
+        }
+        return new ChatQueryMatcher(List.copyOf(source), movies, cities);
+    }
+
+    /**
+     * Scans lowercased input once. The longest movie title and city win, ties go to the
+     * one mentioned first.
+     */
+    public Match match(String input) {
+        EnumSet<Keyword> keywords = EnumSet.noneOf(Keyword.class);
+        Integer movieId = null;
+        int movieLength = 0;
+        String city = null;
+        int cityLength = 0;
+
+        Keyword[] allKeywords = Keyword.values();
+        int node = 0;
+        for (int end = 0; end < input.length(); end++) {
+            node = step(node, input.charAt(end));
+            for (int id : outputs[node]) {
+                int length = patternLength[id];
+                if (patternKind[id] == KEYWORD) {
+                    keywords.add(allKeywords[patternValue[id]]);
+                } else if (isWholeWord(input, end + 1 - length, end + 1)) {
+                    if (patternKind[id] == MOVIE && length > movieLength) {
+                        movieId = patternValue[id];
+                        movieLength = length;
+                    } else if (patternKind[id] == CITY && length > cityLength) {
+                        city = cityNames.get(patternValue[id]);
+                        cityLength = length;
+                    }
+                }
+            }
+        }
+        return new Match(keywords, movieId, city);
+    }
+
+    private int step(int node, char c) {
+        while (true) {
+            int i = Arrays.binarySearch(edgeChars[node], c);
+            if (i >= 0) {
+                return edgeTargets[node][i];
+            }
+            if (node == 0) {
+                return 0;
+            }
+            node = failure[node];
+        }
+    }
+
+    private static boolean isWholeWord(String input, int start, int end) {
+        return (start == 0 || !Character.isLetterOrDigit(input.charAt(start - 1)))
+                && (end == input.length() || !Character.isLetterOrDigit(input.charAt(end)));
+    }
+}
@@ -0,0 +1,221 @@
+package com.project.EasyBook.catalog;
+
+import com.project.EasyBook.entity.Movie;
+
+import java.text.Normalizer;
+import java.util.*;
+
+/**
+ * Inverted index over movie titles, genres and languages. Queries are tokenized the
+ * same way as the indexed fields and each query token matches indexed tokens exactly,
+ * by prefix, or within a small edit distance, with exact title hits ranking highest.
+ * Immutable, and only rebuilt when a title, genre or language changes.
+ */
+final class MovieSearchIndex {
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int TAG_WEIGHT = 2;
+
+    private static final double EXACT = 1.0;
+    private static final double PREFIX = 0.6;
+    private static final double FUZZY = 0.4;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final int MAX_EDITS = 2;
+    // Longer tokens are left out of the deletion index, their variants would outweigh the rest
+    private static final int MAX_FUZZY_TOKEN_LENGTH = 32;
+
+    private final List<String> source;
+    private final int[] movieIds;
+    private final String[] titles;
+    // token -> (movie slot -> best field weight), sorted so prefixes are a contiguous range
+    private final NavigableMap<String, Map<Integer, Integer>> postings;
+    // token with up to MAX_EDITS characters deleted -> indexed tokens it came from
+    private final Map<String, List<String>> deletions;
+
+    private MovieSearchIndex(List<String> source, List<Movie> movies) {
+        this.source = source;
+        this.movieIds = new int[movies.size()];
+        this.titles = new String[movies.size()];
+        TreeMap<String, Map<Integer, Integer>> index = new TreeMap<>();
+        for (int slot = 0; slot < movies.size(); slot++) {
+            Movie movie = movies.get(slot);
+            movieIds[slot] = movie.getMovieId();
+            titles[slot] = String.valueOf(movie.getTitle());
+            addField(index, slot, movie.getTitle(), TITLE_WEIGHT);
+            addField(index, slot, movie.getGenre(), TAG_WEIGHT);
+            addField(index, slot, movie.getLang(), TAG_WEIGHT);
+        }
+        index.replaceAll((token, slots) -> Map.copyOf(slots));
+        this.postings = Collections.unmodifiableNavigableMap(index);
+
+        // A query token of MIN_FUZZY_LENGTH can be one edit away from a shorter token
+        Map<String, List<String>> variants = new HashMap<>();
+        for (String token : index.keySet()) {
+            if (token.length() >= MIN_FUZZY_LENGTH - 1 && token.length() <= MAX_FUZZY_TOKEN_LENGTH) {
+                for (String variant : deletes(token, MAX_EDITS)) {
+                    variants.computeIfAbsent(variant, v -> new ArrayList<>(1)).add(token);
+                }
+            }
+        }
+        variants.replaceAll((variant, tokens) -> List.copyOf(tokens));
+        this.deletions = Map.copyOf(variants);
+    }
+
+    /**
+     * Returns {@code previous} when the searchable fields of {@code movies} are unchanged,
+     * so catalog rebuilds that only touch shows keep the same index.
+     */
+    static MovieSearchIndex build(List<Movie> movies, MovieSearchIndex previous) {
+        List<String> source = new ArrayList<>(movies.size());
+        for (Movie movie : movies) {
+            source.add(movie.getMovieId() + "\u0000" + movie.getTitle()
+                    + "\u0000" + movie.getGenre() + "\u0000" + movie.getLang());
+        }
+        if (previous != null && previous.source.equals(source)) {
+            return previous;
+        }
+        return new MovieSearchIndex(List.copyOf(source), movies);
+    }
+
+    /**
+     * Ids of the movies matching the query, best match first.
+     */
+    List<Integer> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        double[] scores = new double[movieIds.length];
+        int[] matchedTokens = new int[movieIds.length];
+        for (String token : tokens) {
+            double[] best = new double[movieIds.length];
+            collect(postings.get(token), EXACT, best);
+            if (token.length() >= MIN_PREFIX_LENGTH) {
+                for (Map<Integer, Integer> slots : postings.subMap(token, false, token + Character.MAX_VALUE, false).values()) {
+                    collect(slots, PREFIX, best);
+                }
+            }
+            int maxEdits = token.length() >= 8 ? 2 : 1;
+            if (token.length() >= MIN_FUZZY_LENGTH && token.length() <= MAX_FUZZY_TOKEN_LENGTH + maxEdits) {
+                // Two tokens within k edits share a variant with at most k deletions on each side
+                Set<String> candidates = new HashSet<>();
+                for (String variant : deletes(token, maxEdits)) {
+                    candidates.addAll(deletions.getOrDefault(variant, List.of()));
+                }
+                for (String candidate : candidates) {
+                    if (Math.abs(candidate.length() - token.length()) <= maxEdits
+                            && !candidate.equals(token)
+                            && withinEditDistance(token, candidate, maxEdits)) {
+                        collect(postings.get(candidate), FUZZY, best);
+                    }
+                }
+            }
+            for (int slot = 0; slot < best.length; slot++) {
+                if (best[slot] > 0) {
+                    scores[slot] += best[slot];
+                    matchedTokens[slot]++;
+                }
+            }
+        }
+
+        List<Integer> hits = new ArrayList<>();
+        for (int slot = 0; slot < scores.length; slot++) {
+            if (scores[slot] > 0) {
+                // Movies matching every query token outrank partial matches
+                if (matchedTokens[slot] == tokens.size()) {
+                    scores[slot] += TITLE_WEIGHT * EXACT * tokens.size();
+                }
+                hits.add(slot);
+            }
+        }
+        hits.sort(Comparator.<Integer>comparingDouble(slot -> -scores[slot])
+                .thenComparing(slot -> titles[slot]));
+        return hits.stream().limit(limit).map(slot -> movieIds[slot]).toList();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : folded.split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // The word itself plus every string left after deleting up to maxEdits of its characters
+    static Set<String> deletes(String word, int maxEdits) {
+        Set<String> variants = new HashSet<>();
+        variants.add(word);
+        List<String> frontier = List.of(word);
+        for (int edit = 0; edit < maxEdits; edit++) {
+            List<String> next = new ArrayList<>();
+            for (String current : frontier) {
+                for (int i = 0; i < current.length(); i++) {
+                    String variant = current.substring(0, i) + current.substring(i + 1);
+                    if (variants.add(variant)) {
+                        next.add(variant);
+                    }
+                }
+            }
+            frontier = next;
+        }
+        return variants;
+    }
+
+    private static void addField(Map<String, Map<Integer, Integer>> index, int slot, String value, int weight) {
+        for (String token : tokenize(value)) {
+            index.computeIfAbsent(token, t -> new HashMap<>()).merge(slot, weight, Math::max);
+        }
+    }
+
+    private static void collect(Map<Integer, Integer> slots, double match, double[] best) {
+        if (slots == null) {
+            return;
+        }
+        slots.forEach((slot, weight) -> best[slot] = Math.max(best[slot], match * weight));
+    }
+
+    // Levenshtein distance limited to a diagonal band, gives up once every cell exceeds the bound
+    static boolean withinEditDistance(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(b.length(), i + maxEdits);
+            if (from > 1) {
+                current[from - 1] = maxEdits + 1;
+            }
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(previous[j - 1] + cost, Math.min(previous[j] + 1, current[j - 1] + 1));
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (to < b.length()) {
+                current[to + 1] = maxEdits + 1;
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+}
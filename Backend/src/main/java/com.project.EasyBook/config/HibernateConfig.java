@@ -0,0 +1,19 @@
+package com.project.EasyBook.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class HibernateConfig {
+
+    // Lets the seat rows of a booking go out as one JDBC batch, explicit spring.jpa.properties still win
+    @Bean
+    public HibernatePropertiesCustomizer batchingCustomizer(@Value("${easybook.jpa.batch-size:50}") int batchSize) {
+        return properties -> {
+            properties.putIfAbsent("hibernate.jdbc.batch_size", batchSize);
+            properties.putIfAbsent("hibernate.order_inserts", true);
+        };
+    }
+}
@@ -1,6 +1,7 @@
 package com.project.EasyBook.config;
 
 import com.project.EasyBook.controller.EasyBookChatHandler;
+import com.project.EasyBook.controller.SeatUpdatesHandler;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
@@ -12,15 +13,19 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 public class WebSocketConfig implements WebSocketConfigurer {
 
     private final EasyBookChatHandler easyBookChatHandler;
+    private final SeatUpdatesHandler seatUpdatesHandler;
 
     @Autowired
-    public WebSocketConfig(EasyBookChatHandler easyBookChatHandler){
+    public WebSocketConfig(EasyBookChatHandler easyBookChatHandler, SeatUpdatesHandler seatUpdatesHandler){
         this.easyBookChatHandler = easyBookChatHandler;
+        this.seatUpdatesHandler = seatUpdatesHandler;
     }
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
         registry.addHandler(easyBookChatHandler, "/api/chat")
                 .setAllowedOrigins("http://localhost:3000", "http://127.0.0.1:3000");
+        registry.addHandler(seatUpdatesHandler, "/api/seat-updates")
+                .setAllowedOrigins("http://localhost:3000", "http://127.0.0.1:3000");
     }
 }
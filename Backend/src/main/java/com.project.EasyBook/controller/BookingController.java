@@ -1,18 +1,44 @@
 package com.project.EasyBook.controller;
 
+import com.project.EasyBook.cache.ResponseBodyCache;
+import com.project.EasyBook.catalog.CatalogSnapshot;
+import com.project.EasyBook.catalog.CatalogSnapshotService;
 import com.project.EasyBook.dto.BookingRequest;
+import com.project.EasyBook.dto.MovieShowRow;
+import com.project.EasyBook.dto.PageResponse;
+import com.project.EasyBook.dto.SeatMapResponse;
+import com.project.EasyBook.dto.ShowScheduleRequest;
+import com.project.EasyBook.dto.ShowHeaderView;
 import com.project.EasyBook.entity.*;
+import com.project.EasyBook.inventory.SeatHold;
+import com.project.EasyBook.inventory.SeatHoldService;
+import com.project.EasyBook.inventory.SeatInventory;
+import com.project.EasyBook.inventory.SeatMapCodec;
+import com.project.EasyBook.inventory.ShowLockManager;
+import com.project.EasyBook.inventory.ShowSeatMap;
 import com.project.EasyBook.repository.*;
 import com.project.EasyBook.service.BookingService;
 import com.project.EasyBook.service.PaymentService;
+import com.project.EasyBook.service.ShowSchedulingService;
+import com.project.EasyBook.util.KeysetCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 
-import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -20,12 +46,20 @@ import java.util.stream.Collectors;
 @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
 public class BookingController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_WINDOW_HOURS = 7 * 24;
+
     @Autowired
     private BookingService bookingService;
 
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private ShowSchedulingService showSchedulingService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -41,23 +75,152 @@ public class BookingController {
     @Autowired
     private MovieRepository movieRepository;
 
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private SeatHoldService seatHoldService;
+
+    @Autowired
+    private ShowLockManager showLockManager;
+
+    @Autowired
+    private ResponseBodyCache responseBodyCache;
+
+    @Value("${easybook.catalog.http-max-age:60s}")
+    private Duration catalogMaxAge;
+
 
     @GetMapping("/movies")
-    public List<Movie> getAllMovies() {
-        return movieRepository.findAll();
+    public ResponseEntity<?> getAllMovies(@RequestParam(required = false) String genre,
+                                          @RequestParam(required = false) String lang,
+                                          @RequestParam(required = false) String city,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit,
+                                          WebRequest webRequest) {
+        // Without paging or filter params the full list keeps the shape existing clients expect
+        if (genre == null && lang == null && city == null && cursor == null && limit == null) {
+            return catalogResponse(webRequest, "movies", CatalogSnapshot::movies);
+        }
+        try {
+            int pageSize = pageSize(limit);
+            List<Movie> rows = movieRepository.findPage(KeysetCursor.decode(cursor),
+                    blankToNull(genre), blankToNull(lang), blankToNull(city), Limit.of(pageSize + 1));
+            return ResponseEntity.ok(PageResponse.of(rows, pageSize, Movie::getMovieId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/theaters")
+    public ResponseEntity<?> getTheaterPage(@RequestParam(required = false) String city,
+                                            @RequestParam(required = false) Integer movieId,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = pageSize(limit);
+            List<Theater> rows = theaterRepository.findPage(KeysetCursor.decode(cursor),
+                    blankToNull(city), movieId, Limit.of(pageSize + 1));
+            return ResponseEntity.ok(PageResponse.of(rows, pageSize, Theater::getTheaterId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/shows")
+    public ResponseEntity<?> getShowPage(@RequestParam(required = false) Integer movieId,
+                                         @RequestParam(required = false) Integer theaterId,
+                                         @RequestParam(required = false) String city,
+                                         @RequestParam(required = false) String genre,
+                                         @RequestParam(required = false) String lang,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = pageSize(limit);
+            List<Show> rows = showRepository.findPage(KeysetCursor.decode(cursor), LocalDateTime.now(), movieId,
+                    theaterId, blankToNull(city), blankToNull(genre), blankToNull(lang), Limit.of(pageSize + 1));
+            return ResponseEntity.ok(PageResponse.of(rows, pageSize, Show::getShowId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/shows/schedule")
+    public ResponseEntity<?> scheduleShows(@RequestBody ShowScheduleRequest request) {
+        try {
+            List<Integer> showIds = showSchedulingService.schedule(request);
+            return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                    "status", "success",
+                    "message", "Scheduled " + showIds.size() + " show(s)",
+                    "showIds", showIds
+            ));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of(
+                    "status", "error",
+                    "message", "Failed to schedule shows: " + e.getMessage()
+            ));
+        }
+    }
+
+    @GetMapping("/shows/upcoming")
+    public ResponseEntity<?> getUpcomingShows(@RequestParam(required = false) Integer movieId,
+                                              @RequestParam(required = false) Integer theaterId,
+                                              @RequestParam(required = false) String city,
+                                              @RequestParam(required = false)
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                              @RequestParam(defaultValue = "3") int hours,
+                                              @RequestParam(required = false) Integer limit) {
+        try {
+            int pageSize = pageSize(limit);
+            LocalDateTime start = windowStart(from);
+            List<Show> shows = showRepository.findStartingBetween(start, start.plusHours(windowHours(hours)),
+                    movieId, theaterId, blankToNull(city), Limit.of(pageSize));
+            return ResponseEntity.ok(shows);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", e.getMessage()));
+        }
+    }
+
+    // Windows never reach into the past, expired shows stay out of listings
+    private static LocalDateTime windowStart(LocalDateTime from) {
+        LocalDateTime now = LocalDateTime.now();
+        return from == null || from.isBefore(now) ? now : from;
+    }
+
+    private static int windowHours(int hours) {
+        if (hours < 1 || hours > MAX_WINDOW_HOURS) {
+            throw new IllegalArgumentException("hours must be between 1 and " + MAX_WINDOW_HOURS);
+        }
+        return hours;
+    }
+
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 
     @GetMapping("/cities/{movieId}")
-    public ResponseEntity<?> getCitiesByMovie(@PathVariable int movieId) {
+    public ResponseEntity<?> getCitiesByMovie(@PathVariable int movieId, WebRequest webRequest) {
         try {
-            List<String> cities = showRepository.findAll().stream()
-                    .filter(s -> s.getMovie() != null && s.getTheater() != null)
-                    .filter(s -> s.getMovie().getMovieId() == movieId)
-                    .map(s -> s.getTheater().getCity())
-                    .filter(city -> city != null)
-                    .distinct()
-                    .toList();
-            return ResponseEntity.ok(cities);
+            if (catalogSnapshotService.current().movie(movieId).isPresent()) {
+                return catalogResponse(webRequest, "cities:" + movieId, catalog -> catalog.citiesForMovie(movieId));
+            }
+            // Movies added straight to the database show up before the next snapshot rebuild
+            return ResponseEntity.ok(showRepository.findDistinctCitiesByMovieId(movieId));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Error fetching cities: " + e.getMessage());
@@ -65,22 +228,124 @@ public class BookingController {
     }
 
     @GetMapping("/theaters/{movieId}/{city}")
-    public List<Theater> getTheaters(@PathVariable int movieId, @PathVariable String city) {
-        return showRepository.findAll().stream()
-                .filter(s -> s.getMovie().getMovieId() == movieId && s.getTheater().getCity().equals(city))
-                .map(Show::getTheater).distinct().toList();
+    public ResponseEntity<?> getTheaters(@PathVariable int movieId, @PathVariable String city, WebRequest webRequest) {
+        return catalogResponse(webRequest, "theaters:" + movieId + ":" + city,
+                catalog -> catalog.theatersForMovie(movieId, city));
     }
 
     @GetMapping("/shows/{movieId}/{theaterId}")
-    public List<Show> getShows(@PathVariable int movieId, @PathVariable int theaterId) {
-        return showRepository.findAll().stream()
-                .filter(s -> s.getMovie().getMovieId() == movieId && s.getTheater().getTheaterId() == theaterId)
-                .toList();
+    public ResponseEntity<?> getShows(@PathVariable int movieId, @PathVariable int theaterId, WebRequest webRequest) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        List<Show> shows = catalog.showsForMovieAtTheater(movieId, theaterId);
+        // Seat counts move with every booking while the snapshot stays put, so the body is
+        // rendered with the committed counts and they are folded into its tag and ETag
+        int[] counts = new int[shows.size()];
+        long seatsHash = 17;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = catalogSnapshotService.availableSeats(shows.get(i));
+            seatsHash = 31 * seatsHash + counts[i];
+        }
+        long tag = 31 * catalog.getContentHash() + seatsHash;
+        return cachedResponse(webRequest, "shows:" + movieId + ":" + theaterId, tag,
+                "\"" + Long.toHexString(catalog.getContentHash()) + "-" + Long.toHexString(seatsHash) + "\"",
+                -1, CacheControl.noCache().cachePublic(), () -> withAvailableSeats(shows, counts));
+    }
+
+    private static List<Show> withAvailableSeats(List<Show> shows, int[] counts) {
+        List<Show> rendered = new ArrayList<>(shows.size());
+        for (int i = 0; i < counts.length; i++) {
+            Show show = shows.get(i);
+            Show copy = new Show(show.getShowId(), show.getMovie(), show.getTheater(), show.getTiming(), counts[i]);
+            copy.setStartTime(show.getStartTime());
+            rendered.add(copy);
+        }
+        return rendered;
+    }
+
+    /**
+     * Answers a catalog read from the current snapshot with its ETag, Last-Modified and
+     * Cache-Control headers. A matching conditional request gets a 304 before the body
+     * is built; otherwise the pre-serialized body stored under {@code cacheKey} is
+     * written as is, gzipped when the client accepts it.
+     */
+    private ResponseEntity<?> catalogResponse(WebRequest webRequest, String cacheKey, Function<CatalogSnapshot, ?> body) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        return cachedResponse(webRequest, cacheKey, catalog.getContentHash(), catalog.getETag(),
+                catalog.getBuiltAt().toEpochMilli(), CacheControl.maxAge(catalogMaxAge).cachePublic(),
+                () -> body.apply(catalog));
+    }
+
+    // A negative lastModified leaves Last-Modified out, the ETag alone validates such a response
+    private ResponseEntity<?> cachedResponse(WebRequest webRequest, String cacheKey, long tag, String baseETag,
+                                             long lastModified, CacheControl cacheControl, Supplier<?> body) {
+        ResponseBodyCache.Body rendered = responseBodyCache.get(cacheKey, tag, body);
+        boolean gzip = rendered.gzip() != null && acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+
+        // The gzipped bytes are a different representation and need their own strong tag
+        String etag = gzip ? baseETag.replaceFirst("\"$", "-gzip\"") : baseETag;
+        if (webRequest.checkNotModified(etag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(rendered.gzip());
+        }
+        return response.body(rendered.json());
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
     }
 
     @GetMapping("/seats/{showId}")
-    public List<Seat> getSeats(@PathVariable int showId) {
-        return seatRepository.findByShowShowId(showId);
+    public ResponseEntity<?> getSeats(@PathVariable int showId,
+                                      @RequestParam(required = false) Long since,
+                                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (acceptsBinarySeatMap(accept)) {
+            Optional<ShowSeatMap> seatMap = seatInventory.find(showId);
+            if (seatMap.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(SeatMapCodec.MEDIA_TYPE))
+                    .body(SeatMapCodec.encode(seatMap.get(), since));
+        }
+
+        Optional<ShowHeaderView> header = showRepository.findHeaderByShowId(showId);
+        if (header.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("status", "error", "message", "Show not found"));
+        }
+
+        ShowSeatMap seatMap = seatInventory.forShow(showId);
+        return ResponseEntity.ok(new SeatMapResponse(header.get(), seatMap.getVersion(), seatMap.availableCount(), seatMap.seatStates()));
+    }
+
+    private boolean acceptsBinarySeatMap(String accept) {
+        if (accept == null || !accept.contains(SeatMapCodec.MEDIA_TYPE)) {
+            return false;
+        }
+        MediaType binary = MediaType.parseMediaType(SeatMapCodec.MEDIA_TYPE);
+        return MediaType.parseMediaTypes(accept).stream().anyMatch(binary::equalsTypeAndSubtype);
     }
 
     @PostMapping("/create-booking-order")
@@ -92,22 +357,20 @@ public class BookingController {
                         Map.of("status", "error", "message", "No seats selected"));
             }
 
-            Show show = showRepository.findById(request.getShowId())
+            Show show = showRepository.findWithMovieAndTheaterByShowId(request.getShowId())
                     .orElseThrow(() -> new RuntimeException("Show not found"));
 
-            List<Seat> requestedSeats = seatRepository.findBySeatIdIn(request.getSeats());
-            if (requestedSeats.size() != request.getSeats().size()) {
+            if (!seatInventory.containsAll(show.getShowId(), request.getSeats())) {
                 return ResponseEntity.badRequest().body(Map.of(
                         "status", "error",
                         "message", "One or more seats not found"
                 ));
             }
 
-            if (requestedSeats.stream().anyMatch(Seat::getBooked)) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "status", "error",
-                        "message", "Some seats already booked"
-                ));
+            // A retry of the same order swaps its own hold instead of being blocked by it
+            SeatHold hold = seatHoldService.rehold(request.getOrderId(), show.getShowId(), request.getSeats());
+            if (hold == null) {
+                return seatsUnavailable(show.getShowId(), request.getSeats());
             }
 
             PaymentOrder paymentOrder = new PaymentOrder();
@@ -119,7 +382,14 @@ public class BookingController {
                     " - " + show.getShowId());
             paymentOrder.setAmount(request.getTotalPrice());
 
-            String razorpayOrder = paymentService.createOrder(paymentOrder);
+            String razorpayOrder;
+            try {
+                razorpayOrder = paymentService.createOrder(paymentOrder);
+            } catch (Exception e) {
+                seatHoldService.release(hold);
+                throw e;
+            }
+            seatHoldService.attach(hold, paymentOrder.getOrderId());
 
 
             return ResponseEntity.ok(Map.of(
@@ -128,6 +398,7 @@ public class BookingController {
                     "razorpayOrder", razorpayOrder,
                     "orderId", paymentOrder.getOrderId(),
                     "amount", paymentOrder.getAmount(),
+                    "holdExpiresAt", hold.getExpiresAtMillis(),
                     "bookingData", Map.of(
                             "showId", request.getShowId(),
                             "seats", request.getSeats(),
@@ -143,6 +414,41 @@ public class BookingController {
         }
     }
 
+    /**
+     * Gives the seats held for an order back, called when the payment dialog is closed
+     * without paying. The seats would otherwise stay held until the hold expires.
+     */
+    @PostMapping("/cancel-booking-order")
+    @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+    public ResponseEntity<?> cancelBookingOrder(@RequestBody BookingRequest request) {
+        if (request.getOrderId() == null) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Missing orderId"));
+        }
+        if (!seatHoldService.cancel(request.getOrderId())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("status", "error", "message", "No seats are held for this order"));
+        }
+        paymentService.updateOrderStatus(request.getPaymentId(), request.getOrderId(), "CANCELLED");
+        return ResponseEntity.ok(Map.of("status", "success", "message", "Seats released"));
+    }
+
+    // Seats held for another checkout free up again when that hold ends, booked seats do not
+    private ResponseEntity<?> seatsUnavailable(int showId, List<Integer> seats) {
+        ShowSeatMap seatMap = seatInventory.forShow(showId);
+        if (seats.stream().anyMatch(seatMap::isBookedSeat)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                    "status", "error",
+                    "reason", "booked",
+                    "message", "Some seats already booked"
+            ));
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "status", "error",
+                "reason", "held",
+                "message", "Some seats are held for another checkout, please try again in a few minutes"
+        ));
+    }
+
     @PostMapping("/payment/create-order")
     @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
     public ResponseEntity<?> createPaymentOrder(@RequestBody PaymentOrder orderDetails) {
@@ -177,7 +483,8 @@ public class BookingController {
             Integer userId = (Integer) bookingData.get("userId");
             Integer showId = (Integer) bookingData.get("showId");
             List<Integer> seats = (List<Integer>) bookingData.get("seats");
-            Double totalPrice = (Double) bookingData.get("totalPrice");
+            // Whole rupee totals arrive as integers
+            Double totalPrice = ((Number) bookingData.get("totalPrice")).doubleValue();
 
             boolean isValidSignature = paymentService.verifySignature(paymentId, orderId, signature);
 
@@ -189,28 +496,30 @@ public class BookingController {
                 ));
             }
 
-            List<Seat> requestedSeats = seatRepository.findBySeatIdIn(seats);
-            if (requestedSeats.stream().anyMatch(Seat::getBooked)) {
+            Booking booking;
+            try (ShowLockManager.Held ignored = showLockManager.lock(showId)) {
+                SeatHold hold = seatHoldService.take(orderId);
+                booking = bookingService.bookSeats(
+                        userId,
+                        showId,
+                        seats,
+                        totalPrice,
+                        hold
+                );
+            } catch (IllegalStateException e) {
                 paymentService.updateOrderStatus(paymentId, orderId, "FAILED");
                 return ResponseEntity.badRequest().body(Map.of(
                         "status", "error",
-                        "message", "Some seats are no longer available"
+                        "message", e.getMessage()
                 ));
             }
             paymentService.updateOrderStatus(paymentId, orderId, "SUCCESS");
 
-            Booking booking = bookingService.bookSeats(
-                    userId,
-                    showId,
-                    seats,
-                    totalPrice
-            );
-
             return ResponseEntity.ok(Map.of(
                     "status", "success",
                     "message", "Booking confirmed successfully",
                     "bookingId", booking.getBookingId(),
-                    "seats", booking.getSeatsBooked(),
+                    "seats", booking.getSeatIds().stream().map(String::valueOf).collect(Collectors.joining(",")),
                     "total", booking.getTotalPrice(),
                     "paymentId", paymentId
             ));
@@ -226,6 +535,15 @@ public class BookingController {
     @PutMapping("/bookings/update-payment")
     @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
     public ResponseEntity<?> updatePaymentStatus(@RequestBody BookingRequest request) {
+        // A failed payment gives its held seats back right away
+        if ("FAILED".equalsIgnoreCase(request.getPaymentStatus())) {
+            if (request.getOrderId() == null) {
+                return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Missing orderId"));
+            }
+            seatHoldService.cancel(request.getOrderId());
+            paymentService.updateOrderStatus(request.getPaymentId(), request.getOrderId(), "FAILED");
+            return ResponseEntity.ok(Map.of("status", "success", "message", "Seats released"));
+        }
         if(request.getBookingId() == null || request.getPaymentId() == null){
             return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Missing bookingId or paymentId"));
         }
@@ -235,22 +553,19 @@ public class BookingController {
                         Map.of("status", "error", "message", "No seats selected"));
             }
 
-            Show show = showRepository.findById(request.getShowId())
+            Show show = showRepository.findWithMovieAndTheaterByShowId(request.getShowId())
                     .orElseThrow(() -> new RuntimeException("Show not found"));
 
-            List<Seat> requestedSeats = seatRepository.findBySeatIdIn(request.getSeats());
-            if (requestedSeats.size() != request.getSeats().size()) {
+            if (!seatInventory.containsAll(show.getShowId(), request.getSeats())) {
                 return ResponseEntity.badRequest().body(Map.of(
                         "status", "error",
                         "message", "One or more seats not found"
                 ));
             }
 
-            if (requestedSeats.stream().anyMatch(Seat::getBooked)) {
-                return ResponseEntity.badRequest().body(Map.of(
-                        "status", "error",
-                        "message", "Some seats already booked"
-                ));
+            SeatHold hold = seatHoldService.hold(show.getShowId(), request.getSeats());
+            if (hold == null) {
+                return seatsUnavailable(show.getShowId(), request.getSeats());
             }
 
             // Create payment order
@@ -263,7 +578,14 @@ public class BookingController {
                     " - " + show.getShowId());
             paymentOrder.setAmount(request.getTotalPrice());
 
-            String razorpayOrder = paymentService.createOrder(paymentOrder);
+            String razorpayOrder;
+            try {
+                razorpayOrder = paymentService.createOrder(paymentOrder);
+            } catch (Exception e) {
+                seatHoldService.release(hold);
+                throw e;
+            }
+            seatHoldService.attach(hold, paymentOrder.getOrderId());
 
             return ResponseEntity.ok(Map.of(
                     "status", "success",
@@ -271,6 +593,7 @@ public class BookingController {
                     "razorpayOrder", razorpayOrder,
                     "orderId", paymentOrder.getOrderId(),
                     "amount", paymentOrder.getAmount(),
+                    "holdExpiresAt", hold.getExpiresAtMillis(),
                     "bookingData", Map.of(
                             "showId", request.getShowId(),
                             "seats", request.getSeats(),
@@ -286,27 +609,32 @@ public class BookingController {
         }
     }
 
-
+    // Books without a payment; the checkout holds seats via create-booking-order and books them in confirm-booking
     @PostMapping("/book")
     @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
     public ResponseEntity<?> bookSeats(@RequestBody BookingRequest request) {
-        Integer bookingId = request.getBookingId();
+        if (request.getUserId() == null) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "Missing userId"));
+        }
+        if (request.getSeats() == null || request.getSeats().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("status", "error", "message", "No seats selected"));
+        }
         try {
+            if (!showRepository.existsById(request.getShowId())) {
+                throw new IllegalArgumentException("Invalid show");
+            }
 
-            Show show = showRepository.findById(request.getShowId())
-                    .orElseThrow(() -> new RuntimeException("Invalid show"));
-
-            Booking booking = new Booking();
-             booking.setShow(showRepository.findById(request.getShowId())
-                   .orElseThrow(() -> new RuntimeException("Invalid show")));
-
-            List<String> seatStrings = request.getSeats().stream()
-                    .map(String::valueOf)
-                    .collect(Collectors.toList());
-
-            booking.setSeatsBooked(String.join(",", seatStrings));
-            booking.setTotalPrice(BigDecimal.valueOf(request.getTotalPrice()));
-            Booking savedBooking = bookingService.saveBooking(booking);
+            // Same claim path as confirm-booking, so the seat rows and the counter move together
+            Booking savedBooking;
+            try (ShowLockManager.Held ignored = showLockManager.lock(request.getShowId())) {
+                savedBooking = bookingService.bookSeats(
+                        request.getUserId(),
+                        request.getShowId(),
+                        request.getSeats(),
+                        request.getTotalPrice(),
+                        null
+                );
+            }
 
             return ResponseEntity.ok(Map.of("message", "Booking successful!", "status", "success", "booking" , savedBooking.getBookingId()));
         } catch (Exception e) {
@@ -318,35 +646,9 @@ public class BookingController {
 
     @GetMapping("/chat/movies-info")
     @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
-    public ResponseEntity<?> getChatMoviesInfo() {
+    public ResponseEntity<?> getChatMoviesInfo(WebRequest webRequest) {
         try {
-            Map<String, Object> info = new HashMap<>();
-            info.put("totalMovies", movieRepository.count());
-            info.put("totalTheaters", theaterRepository.count());
-            info.put("totalShows", showRepository.count());
-
-            List<String> cities = theaterRepository.findAll().stream()
-                    .map(Theater::getCity)
-                    .filter(Objects::nonNull)
-                    .distinct()
-                    .collect(Collectors.toList());
-            info.put("availableCities", cities);
-
-            List<Map<String, Object>> moviesList = movieRepository.findAll().stream()
-                    .limit(20)
-                    .map(movie -> {
-                        Map<String, Object> movieInfo = new HashMap<>();
-                        movieInfo.put("id", movie.getMovieId());
-                        movieInfo.put("title", movie.getTitle());
-                        movieInfo.put("genre", movie.getGenre());
-                        movieInfo.put("language", movie.getLang());
-                        movieInfo.put("duration", movie.getDuration());
-                        return movieInfo;
-                    })
-                    .collect(Collectors.toList());
-            info.put("recentMovies", moviesList);
-
-            return ResponseEntity.ok(info);
+            return catalogResponse(webRequest, "chat-movies-info", this::chatMoviesInfo);
         }
         catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -354,15 +656,35 @@ public class BookingController {
         }
     }
 
+    private Map<String, Object> chatMoviesInfo(CatalogSnapshot catalog) {
+        Map<String, Object> info = new HashMap<>();
+        info.put("totalMovies", catalog.movies().size());
+        info.put("totalTheaters", catalog.theaters().size());
+        info.put("totalShows", catalog.showCount());
+        info.put("availableCities", catalog.cities());
+
+        List<Map<String, Object>> moviesList = catalog.movies().stream()
+                .limit(20)
+                .map(movie -> {
+                    Map<String, Object> movieInfo = new HashMap<>();
+                    movieInfo.put("id", movie.getMovieId());
+                    movieInfo.put("title", movie.getTitle());
+                    movieInfo.put("genre", movie.getGenre());
+                    movieInfo.put("language", movie.getLang());
+                    movieInfo.put("duration", movie.getDuration());
+                    return movieInfo;
+                })
+                .collect(Collectors.toList());
+        info.put("recentMovies", moviesList);
+        return info;
+    }
+
     @GetMapping("/chat/search-movies/{query}")
     @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
     public ResponseEntity<?> searchMovies(@PathVariable String query) {
         try {
-            List<Movie> movies = movieRepository.findAll().stream()
-                    .filter(movie -> movie.getTitle().toLowerCase().contains(query.toLowerCase()) ||
-                            (movie.getGenre() != null && movie.getGenre().toLowerCase().contains(query.toLowerCase())) ||
-                            (movie.getLang() != null && movie.getLang().toLowerCase().contains(query.toLowerCase())))
-                    .collect(Collectors.toList());
+            CatalogSnapshot catalog = catalogSnapshotService.current();
+            List<Movie> movies = catalog.searchMovies(query, MAX_SEARCH_RESULTS);
 
             if (movies.isEmpty()) {
                 return ResponseEntity.ok(Map.of(
@@ -381,16 +703,8 @@ public class BookingController {
                         movieInfo.put("duration", movie.getDuration());
 
                         // Add show information
-                        List<Show> shows = showRepository.findAll().stream()
-                                .filter(show -> show.getMovie() != null &&
-                                        show.getMovie().getMovieId() == movie.getMovieId())
-                                .collect(Collectors.toList());
-
-                        movieInfo.put("totalShows", shows.size());
-                        movieInfo.put("cities", shows.stream()
-                                .map(show -> show.getTheater().getCity())
-                                .distinct()
-                                .collect(Collectors.toList()));
+                        movieInfo.put("totalShows", catalog.showsForMovie(movie.getMovieId()).size());
+                        movieInfo.put("cities", catalog.citiesForMovie(movie.getMovieId()));
 
                         return movieInfo;
                     })
@@ -411,7 +725,8 @@ public class BookingController {
     @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
     public ResponseEntity<?> getMovieDetails(@PathVariable int movieId) {
         try {
-            Optional<Movie> movieOpt = movieRepository.findById(movieId);
+            CatalogSnapshot catalog = catalogSnapshotService.current();
+            Optional<Movie> movieOpt = catalog.movie(movieId);
             if (movieOpt.isEmpty()) {
                 return ResponseEntity.badRequest().body(Map.of("error", "Movie not found"));
             }
@@ -424,26 +739,37 @@ public class BookingController {
             movieDetails.put("language", movie.getLang());
             movieDetails.put("duration", movie.getDuration());
 
-            List<Show> shows = showRepository.findAll().stream()
-                    .filter(show -> show.getMovie() != null &&
-                            show.getMovie().getMovieId() == movieId)
-                    .collect(Collectors.toList());
+            // Read through the shows-by-movie cache rather than the snapshot so seat counts follow
+            // bookings. The cached rows include expired shows, this filter is the one that drops them
+            LocalDateTime now = LocalDateTime.now();
+            List<MovieShowRow> rows = showRepository.findShowRowsByMovieId(movieId).stream()
+                    .filter(row -> row.getStartTime() == null || !row.getStartTime().isBefore(now))
+                    .toList();
 
-            Map<String, List<Map<String, Object>>> cityWiseShows = shows.stream()
-                    .collect(Collectors.groupingBy(
-                            show -> show.getTheater().getCity(),
-                            Collectors.mapping(show -> {
-                                Map<String, Object> showInfo = new HashMap<>();
-                                showInfo.put("showId", show.getShowId());
-                                showInfo.put("theater", show.getTheater().getName());
-                                showInfo.put("timing", show.getTiming());
-                                showInfo.put("availableSeats", show.getAvailableSeats());
-                                return showInfo;
-                            }, Collectors.toList())
-                    ));
+            // Rows come sorted by city, so consecutive rows fill one city's list at a time
+            Map<String, List<Map<String, Object>>> cityWiseShows = new LinkedHashMap<>();
+            List<Map<String, Object>> cityShows = null;
+            String currentCity = null;
+            for (MovieShowRow row : rows) {
+                if (row.getCity() == null) {
+                    continue;
+                }
+                if (!row.getCity().equals(currentCity)) {
+                    currentCity = row.getCity();
+                    cityShows = new ArrayList<>();
+                    cityWiseShows.put(currentCity, cityShows);
+                }
+                Map<String, Object> showInfo = new HashMap<>();
+                showInfo.put("showId", row.getShowId());
+                showInfo.put("theater", row.getTheaterName());
+                showInfo.put("timing", row.getTiming());
+                showInfo.put("startTime", row.getStartTime());
+                showInfo.put("availableSeats", row.getAvailableSeats());
+                cityShows.add(showInfo);
+            }
 
             movieDetails.put("shows", cityWiseShows);
-            movieDetails.put("totalShows", shows.size());
+            movieDetails.put("totalShows", rows.size());
             movieDetails.put("cities", cityWiseShows.keySet());
 
             return ResponseEntity.ok(movieDetails);
@@ -453,4 +779,33 @@ public class BookingController {
                     .body(Map.of("error", "Failed to fetch movie details: " + e.getMessage()));
         }
     }
+
+    @GetMapping("/chat/movie/{movieId}/upcoming")
+    @CrossOrigin(origins = {"http://localhost:3000", "http://127.0.0.1:3000"})
+    public ResponseEntity<?> getUpcomingMovieShows(@PathVariable int movieId,
+                                                   @RequestParam(defaultValue = "3") int hours) {
+        try {
+            CatalogSnapshot catalog = catalogSnapshotService.current();
+            if (catalog.movie(movieId).isEmpty()) {
+                return ResponseEntity.badRequest().body(Map.of("error", "Movie not found"));
+            }
+            LocalDateTime now = LocalDateTime.now();
+            List<Map<String, Object>> shows = catalog.showsForMovieBetween(movieId, now, now.plusHours(windowHours(hours)))
+                    .stream()
+                    .map(show -> {
+                        Map<String, Object> showInfo = new HashMap<>();
+                        showInfo.put("showId", show.getShowId());
+                        showInfo.put("theater", show.getTheater().getName());
+                        showInfo.put("city", show.getTheater().getCity());
+                        showInfo.put("timing", show.getTiming());
+                        showInfo.put("startTime", show.getStartTime());
+                        showInfo.put("availableSeats", catalogSnapshotService.availableSeats(show));
+                        return showInfo;
+                    })
+                    .collect(Collectors.toList());
+            return ResponseEntity.ok(Map.of("movieId", movieId, "hours", hours, "shows", shows));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
@@ -1,92 +1,274 @@
 package com.project.EasyBook.controller;
 
+import com.project.EasyBook.cache.ChatAnswerCache;
+import com.project.EasyBook.catalog.CatalogSnapshot;
+import com.project.EasyBook.catalog.CatalogSnapshotService;
+import com.project.EasyBook.catalog.ChatQueryMatcher;
+import com.project.EasyBook.catalog.ChatQueryMatcher.Keyword;
 import com.project.EasyBook.entity.Movie;
 import com.project.EasyBook.entity.Show;
 import com.project.EasyBook.entity.Theater;
-import com.project.EasyBook.repository.MovieRepository;
-import com.project.EasyBook.repository.ShowRepository;
-import com.project.EasyBook.repository.TheaterRepository;
+import com.project.EasyBook.service.GeminiClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Component
 public class EasyBookChatHandler extends TextWebSocketHandler {
-    @Value("${gemini.api.key:}")
-    private String apiKey;
+    @Autowired
+    private GeminiClient geminiClient;
 
     @Autowired
-    private MovieRepository movieRepository;
+    private CatalogSnapshotService catalogSnapshotService;
 
     @Autowired
-    private ShowRepository showRepository;
+    private ChatAnswerCache chatAnswerCache;
+
+    @Value("${easybook.chat.max-in-flight:64}")
+    private int maxInFlight;
+
+    @Value("${easybook.chat.max-in-flight-per-session:2}")
+    private int maxInFlightPerSession;
+
+    @Value("${easybook.chat.send-time-limit:5s}")
+    private Duration sendTimeLimit;
+
+    @Value("${easybook.chat.buffer-size-limit:65536}")
+    private int bufferSizeLimit;
 
     @Autowired
-    private TheaterRepository theaterRepository;
+    private MeterRegistry meterRegistry;
+
+    private static final String BUSY_REPLY = "I'm still working on your earlier questions, please try again in a moment.";
+    private static final String FALLBACK_REPLY = "I'm here to help you with movie bookings! Ask me about available movies, theaters, show timings, or how to book tickets.";
+
+    private final Map<String, ChatSession> sessions = new ConcurrentHashMap<>();
+    private Semaphore llmPermits;
+    private ExecutorService llmExecutor;
+    private Timer firstFrameStreamed;
+    private Timer firstFrameFull;
+
+    private static final Keyword[] BOOKING_KEYWORDS = {
+            Keyword.MOVIE, Keyword.FILM, Keyword.CINEMA, Keyword.THEATER, Keyword.THEATRE, Keyword.SHOW,
+            Keyword.BOOK, Keyword.RESERVE, Keyword.TICKET, Keyword.AVAILABLE, Keyword.TIMINGS};
+
+    private static final Pattern CITY_PATTERN = Pattern.compile("\\bin ([a-z ]+)");
+
+    // LLM calls block for seconds, they run on virtual threads so they never hold a container thread
+    @PostConstruct
+    public void start() {
+        llmPermits = new Semaphore(maxInFlight);
+        llmExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("chat-llm-", 0).factory());
+        firstFrameStreamed = firstFrameTimer("stream");
+        firstFrameFull = firstFrameTimer("full");
+    }
 
-    private final String GEMINI_URL = "https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent";
+    private Timer firstFrameTimer(String mode) {
+        return Timer.builder("easybook.chat.first-frame")
+                .description("Time from an LLM-bound question to the first reply frame sent")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        llmExecutor.shutdownNow();
+    }
+
+    // Clients connecting with ?stream=true get JSON delta frames instead of one plain text reply
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        boolean streaming = session.getUri() != null && "true".equalsIgnoreCase(
+                UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("stream"));
+        sessions.put(session.getId(), new ChatSession(new ConcurrentWebSocketSessionDecorator(session,
+                (int) sendTimeLimit.toMillis(), bufferSizeLimit), new AtomicInteger(), streaming));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+    }
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException{
+        ChatSession chat = sessions.get(session.getId());
+        if (chat == null) {
+            return;
+        }
         String userInput = message.getPayload().trim().toLowerCase();
         System.out.println("JAKSIA Chat - User Input : " + userInput);
 
-        String response;
+        ChatQueryMatcher.Match match = catalogSnapshotService.current().matchChatQuery(userInput);
+
+        if (isMovieBookingQuery(match)) {
+            reply(chat, handleMovieBookingQuery(userInput, match));
+            return;
+        }
 
-        if (isMovieBookingQuery(userInput)) {
-            response = handleMovieBookingQuery(userInput);
+        String immediate = immediateAnswer(userInput);
+        if (immediate != null) {
+            reply(chat, immediate);
         } else {
-            response = callGeminiForAnswer(userInput);
+            submitGeminiAnswer(chat, userInput);
+        }
+    }
+
+    // Excess questions are shed right away rather than queued behind slow LLM replies
+    private void submitGeminiAnswer(ChatSession chat, String userInput) throws IOException {
+        if (chat.inFlight().incrementAndGet() > maxInFlightPerSession) {
+            chat.inFlight().decrementAndGet();
+            reply(chat, BUSY_REPLY);
+            return;
+        }
+        if (!llmPermits.tryAcquire()) {
+            chat.inFlight().decrementAndGet();
+            reply(chat, BUSY_REPLY);
+            return;
+        }
+
+        try {
+            llmExecutor.execute(() -> {
+                try {
+                    if (chat.streaming()) {
+                        streamGeminiAnswer(chat, userInput);
+                    } else {
+                        long started = System.nanoTime();
+                        String answer = callGeminiForAnswer(userInput);
+                        if (chat.session().isOpen()) {
+                            chat.session().sendMessage(new TextMessage(answer));
+                            firstFrameFull.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                        }
+                    }
+                } catch (Exception e) {
+                    System.err.println("Error sending chat answer: " + e.getMessage());
+                } finally {
+                    llmPermits.release();
+                    chat.inFlight().decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            llmPermits.release();
+            chat.inFlight().decrementAndGet();
+            reply(chat, BUSY_REPLY);
         }
+    }
+
+    /**
+     * Forwards Gemini's answer chunk by chunk. While earlier frames are still being
+     * written to a slow client the chunks are merged into the next frame instead of
+     * queueing up. Sessions asking the same question at once share one upstream stream,
+     * which stops once all of their sockets are closed.
+     */
+    private void streamGeminiAnswer(ChatSession chat, String userInput) throws IOException {
+        long started = System.nanoTime();
+        StringBuilder answer = new StringBuilder();
+        StringBuilder pending = new StringBuilder();
+        try {
+            chatAnswerCache.stream(userInput, (onText, cancelled) ->
+                    geminiClient.streamContent(prompt(userInput), onText, cancelled), text -> {
+                answer.append(text);
+                pending.append(text);
+                if (chat.session().getBufferSize() == 0) {
+                    if (sendDelta(chat, pending.toString()) && answer.length() == pending.length()) {
+                        firstFrameStreamed.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                    }
+                    pending.setLength(0);
+                }
+            }, () -> !chat.session().isOpen());
+        } catch (Exception e) {
+            System.err.println("❌ Gemini stream failed: " + e.getMessage());
+            if (answer.isEmpty()) {
+                sendDelta(chat, FALLBACK_REPLY);
+                sendFrame(chat, new JSONObject().put("type", "done"));
+            } else {
+                sendDelta(chat, pending.toString());
+                sendFrame(chat, new JSONObject().put("type", "error").put("message", "The answer was cut short"));
+            }
+            return;
+        }
+
+        if (!chat.session().isOpen()) {
+            return;
+        }
+        if (!pending.isEmpty()) {
+            sendDelta(chat, pending.toString());
+        }
+        sendFrame(chat, new JSONObject().put("type", "done"));
+    }
 
-        session.sendMessage(new TextMessage(response));
+    private void reply(ChatSession chat, String text) throws IOException {
+        if (chat.streaming()) {
+            sendDelta(chat, text);
+            sendFrame(chat, new JSONObject().put("type", "done"));
+        } else {
+            chat.session().sendMessage(new TextMessage(text));
+        }
     }
 
-    private boolean isMovieBookingQuery(String userInput) {
-        String[] movieKeywords = {"movie", "book", "ticket", "show", "theater", "theatre", "cinema", "film"};
-        String[] actionKeywords = {"book", "reserve", "available", "timings", "shows", "theaters", "theatres"};
+    private boolean sendDelta(ChatSession chat, String text) {
+        return !text.isEmpty() && sendFrame(chat, new JSONObject().put("type", "delta").put("text", text));
+    }
 
-        boolean hasMovieKeyword = Arrays.stream(movieKeywords).anyMatch(userInput::contains);
-        boolean hasActionKeyword = Arrays.stream(actionKeywords).anyMatch(userInput::contains);
+    private boolean sendFrame(ChatSession chat, JSONObject frame) {
+        if (!chat.session().isOpen()) {
+            return false;
+        }
+        try {
+            chat.session().sendMessage(new TextMessage(frame.toString()));
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-        return hasMovieKeyword || hasActionKeyword ||
-                userInput.contains("what movies") || userInput.contains("movie list") ||
-                userInput.contains("show timings") || userInput.contains("theaters in") ||
-                userInput.contains("theatres in") || userInput.contains("shows for") ||
-                containsMovieName(userInput);
+    private boolean isMovieBookingQuery(ChatQueryMatcher.Match match) {
+        return match.hasAny(BOOKING_KEYWORDS) || match.movieId() != null;
     }
 
-    private boolean containsMovieName(String userInput) {
-        List<Movie> movies = movieRepository.findAll();
-        return movies.stream().anyMatch(movie ->
-                userInput.toLowerCase().contains(movie.getTitle().toLowerCase()));
+    private Movie matchedMovie(ChatQueryMatcher.Match match) {
+        return match.movieId() == null ? null : catalogSnapshotService.current().movie(match.movieId()).orElse(null);
     }
 
-    private String handleMovieBookingQuery(String userInput) {
+    private String handleMovieBookingQuery(String userInput, ChatQueryMatcher.Match match) {
         try {
             // Handle different types of movie queries
-            if (userInput.contains("movie") && (userInput.contains("list") || userInput.contains("available") || userInput.contains("show me"))) {
+            if (match.has(Keyword.MOVIE) && match.hasAny(Keyword.LIST, Keyword.AVAILABLE, Keyword.SHOW_ME)) {
                 return getAvailableMovies();
-            } else if (userInput.contains("theater") || userInput.contains("theatre") || userInput.contains("cinema")) {
-                return handleTheaterQuery(userInput);
-            } else if ((userInput.contains("show") && (userInput.contains("timing") || userInput.contains("time"))) ||
-                    userInput.contains("shows for")) {
-                return handleShowTimingQuery(userInput);
-            } else if (userInput.contains("book") || userInput.contains("reserve")) {
+            } else if (match.hasAny(Keyword.THEATER, Keyword.THEATRE, Keyword.CINEMA)) {
+                return handleTheaterQuery(userInput, match);
+            } else if ((match.has(Keyword.SHOW) && match.hasAny(Keyword.TIMING, Keyword.TIME)) ||
+                    match.has(Keyword.SHOWS_FOR)) {
+                return handleShowTimingQuery(match);
+            } else if (match.hasAny(Keyword.BOOK, Keyword.RESERVE)) {
                 return handleBookingQuery(userInput);
-            } else if (containsSpecificMovieQuery(userInput)) {
-                return handleSpecificMovieQuery(userInput);
+            } else if (match.movieId() != null) {
+                return handleSpecificMovieQuery(match);
             } else {
                 return getGeneralMovieInfo();
             }
@@ -96,30 +278,15 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
         }
     }
 
-    private boolean containsSpecificMovieQuery(String userInput) {
-        List<Movie> movies = movieRepository.findAll();
-        return movies.stream().anyMatch(movie ->
-                userInput.toLowerCase().contains(movie.getTitle().toLowerCase()));
-    }
-
-    private String handleSpecificMovieQuery(String userInput) {
-        List<Movie> movies = movieRepository.findAll();
-        Movie foundMovie = movies.stream()
-                .filter(movie -> userInput.toLowerCase().contains(movie.getTitle().toLowerCase()))
-                .findFirst()
-                .orElse(null);
+    private String handleSpecificMovieQuery(ChatQueryMatcher.Match match) {
+        Movie foundMovie = matchedMovie(match);
 
         if (foundMovie == null) {
             return "Sorry, I couldn't find that movie. Ask me 'What movies are available?' to see all current movies.";
         }
 
-        // Get shows for this movie
-        List<Show> shows = showRepository.findAll().stream()
-                .filter(show -> show.getMovie() != null &&
-                        show.getMovie().getMovieId() == foundMovie.getMovieId())
-                .collect(Collectors.toList());
-
-        if (shows.isEmpty()) {
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        if (catalog.showsForMovie(foundMovie.getMovieId()).isEmpty()) {
             return String.format("🎬 %s is available but currently has no scheduled shows. Please check back later!",
                     foundMovie.getTitle());
         }
@@ -137,10 +304,7 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
         }
 
         response.append("\n🎭 Available in theaters:\n");
-        Set<String> cities = shows.stream()
-                .map(show -> show.getTheater().getCity())
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+        List<String> cities = catalog.citiesForMovie(foundMovie.getMovieId());
 
         for (String city : cities.stream().limit(5).collect(Collectors.toList())) {
             response.append("• ").append(city).append("\n");
@@ -153,7 +317,7 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
     }
 
     private String getAvailableMovies() {
-        List<Movie> movies = movieRepository.findAll();
+        List<Movie> movies = catalogSnapshotService.current().movies();
         if (movies.isEmpty()) {
             return "Sorry, no movies are currently available for booking.";
         }
@@ -176,29 +340,30 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
         return response.toString();
     }
 
-    private String handleTheaterQuery(String userInput) {
-        // Extract city name if mentioned
-        String cityPattern = "in ([a-zA-Z ]+)";
-        Pattern pattern = Pattern.compile(cityPattern);
-        Matcher matcher = pattern.matcher(userInput);
+    private String handleTheaterQuery(String userInput, ChatQueryMatcher.Match match) {
+        // Prefer a known city, otherwise take whatever follows "in" so unknown cities get a proper reply
+        String city = match.city();
+        if (city == null) {
+            Matcher matcher = CITY_PATTERN.matcher(userInput);
+            if (matcher.find()) {
+                city = matcher.group(1).trim();
+            }
+        }
 
-        // Extract movie name if mentioned
-        List<Movie> movies = movieRepository.findAll();
-        Movie specificMovie = movies.stream()
-                .filter(movie -> userInput.toLowerCase().contains(movie.getTitle().toLowerCase()))
-                .findFirst()
-                .orElse(null);
+        Movie specificMovie = matchedMovie(match);
 
-        if (matcher.find()) {
-            String city = matcher.group(1).trim();
+        if (city != null && !city.isEmpty()) {
 
             if (specificMovie != null) {
                 // Show theaters for specific movie in specific city
                 return getTheatersForMovieInCity(specificMovie, city);
             } else {
                 // Show all theaters in city
-                List<Theater> theaters = theaterRepository.findAll().stream()
-                        .filter(t -> t.getCity() != null && t.getCity().toLowerCase().contains(city.toLowerCase()))
+                String cityName = city;
+                List<Theater> theaters = match.city() != null
+                        ? catalogSnapshotService.current().theatersInCity(city)
+                        : catalogSnapshotService.current().theaters().stream()
+                        .filter(t -> t.getCity() != null && t.getCity().toLowerCase().contains(cityName.toLowerCase()))
                         .collect(Collectors.toList());
 
                 if (theaters.isEmpty()) {
@@ -221,28 +386,21 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
     }
 
     private String getTheatersForMovie(Movie movie) {
-        List<Show> shows = showRepository.findAll().stream()
-                .filter(show -> show.getMovie() != null &&
-                        show.getMovie().getMovieId() == movie.getMovieId())
-                .collect(Collectors.toList());
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        List<String> cities = catalog.citiesForMovie(movie.getMovieId());
 
-        if (shows.isEmpty()) {
+        if (cities.isEmpty()) {
             return "Sorry, " + movie.getTitle() + " is not currently showing in any theaters.";
         }
 
         StringBuilder response = new StringBuilder("🎭 " + movie.getTitle() + " is playing at:\n\n");
 
-        Map<String, List<Show>> cityWiseShows = shows.stream()
-                .collect(Collectors.groupingBy(show -> show.getTheater().getCity()));
-
-        for (Map.Entry<String, List<Show>> entry : cityWiseShows.entrySet()) {
-            response.append("📍 ").append(entry.getKey()).append(":\n");
-            Set<String> theaters = entry.getValue().stream()
-                    .map(show -> show.getTheater().getName())
-                    .collect(Collectors.toSet());
+        for (String city : cities) {
+            response.append("📍 ").append(city).append(":\n");
+            List<Theater> theaters = catalog.theatersForMovie(movie.getMovieId(), city);
 
-            for (String theater : theaters.stream().limit(3).collect(Collectors.toList())) {
-                response.append("  • ").append(theater).append("\n");
+            for (Theater theater : theaters.stream().limit(3).collect(Collectors.toList())) {
+                response.append("  • ").append(theater.getName()).append("\n");
             }
             response.append("\n");
         }
@@ -251,9 +409,8 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
     }
 
     private String getTheatersForMovieInCity(Movie movie, String city) {
-        List<Show> shows = showRepository.findAll().stream()
-                .filter(show -> show.getMovie() != null &&
-                        show.getMovie().getMovieId() == movie.getMovieId() &&
+        List<Show> shows = catalogSnapshotService.current().showsForMovie(movie.getMovieId()).stream()
+                .filter(show -> show.getTheater().getCity() != null &&
                         show.getTheater().getCity().toLowerCase().contains(city.toLowerCase()))
                 .collect(Collectors.toList());
 
@@ -278,7 +435,7 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
             response.append(String.join(", ", timings)).append("\n");
 
             int totalSeats = entry.getValue().stream()
-                    .mapToInt(Show::getAvailableSeats)
+                    .mapToInt(catalogSnapshotService::availableSeats)
                     .sum();
             response.append("  Available seats: ").append(totalSeats).append("\n\n");
         }
@@ -287,38 +444,28 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
         return response.toString();
     }
 
-    private String handleShowTimingQuery(String userInput) {
-        // Try to find movie name in the query
-        List<Movie> movies = movieRepository.findAll();
-        Movie specificMovie = movies.stream()
-                .filter(movie -> userInput.toLowerCase().contains(movie.getTitle().toLowerCase()))
-                .findFirst()
-                .orElse(null);
+    private String handleShowTimingQuery(ChatQueryMatcher.Match match) {
+        Movie specificMovie = matchedMovie(match);
 
         if (specificMovie != null) {
-            List<Show> shows = showRepository.findAll().stream()
-                    .filter(show -> show.getMovie() != null &&
-                            show.getMovie().getMovieId() == specificMovie.getMovieId())
-                    .collect(Collectors.toList());
+            Map<String, List<Show>> cityWiseShows = catalogSnapshotService.current()
+                    .showsForMovieByCity(specificMovie.getMovieId());
 
-            if (shows.isEmpty()) {
+            if (cityWiseShows.isEmpty()) {
                 return "Sorry, no show timings found for " + specificMovie.getTitle();
             }
 
             StringBuilder response = new StringBuilder("🕐 Show timings for " + specificMovie.getTitle() + ":\n\n");
 
-            Map<String, Map<String, List<String>>> cityTheaterTimings = shows.stream()
-                    .collect(Collectors.groupingBy(
-                            show -> show.getTheater().getCity(),
-                            Collectors.groupingBy(
-                                    show -> show.getTheater().getName(),
-                                    Collectors.mapping(Show::getTiming, Collectors.toList())
-                            )
-                    ));
-
-            for (Map.Entry<String, Map<String, List<String>>> cityEntry : cityTheaterTimings.entrySet()) {
+            for (Map.Entry<String, List<Show>> cityEntry : cityWiseShows.entrySet()) {
                 response.append("📍 ").append(cityEntry.getKey()).append(":\n");
-                for (Map.Entry<String, List<String>> theaterEntry : cityEntry.getValue().entrySet()) {
+                Map<String, List<String>> theaterTimings = cityEntry.getValue().stream()
+                        .collect(Collectors.groupingBy(
+                                show -> show.getTheater().getName(),
+                                LinkedHashMap::new,
+                                Collectors.mapping(Show::getTiming, Collectors.toList())
+                        ));
+                for (Map.Entry<String, List<String>> theaterEntry : theaterTimings.entrySet()) {
                     response.append("  🎭 ").append(theaterEntry.getKey()).append(": ");
                     response.append(String.join(", ", theaterEntry.getValue())).append("\n");
                 }
@@ -345,8 +492,9 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
     }
 
     private String getGeneralMovieInfo() {
-        long movieCount = movieRepository.count();
-        long theaterCount = theaterRepository.count();
+        CatalogSnapshot catalog = catalogSnapshotService.current();
+        long movieCount = catalog.movies().size();
+        long theaterCount = catalog.theaters().size();
 
         return String.format("🎬 Welcome to EasyBook!\n\n" +
                 "We have %d movies playing across %d theaters.\n\n" +
@@ -358,58 +506,36 @@ public class EasyBookChatHandler extends TextWebSocketHandler {
                 "How can I help you today?", movieCount, theaterCount);
     }
 
-    private String callGeminiForAnswer(String userInput) {
-        if (apiKey == null || apiKey.isEmpty()) {
+    // Answers that need no LLM round trip, null when the question has to go to Gemini
+    private String immediateAnswer(String userInput) {
+        if (!geminiClient.isConfigured()) {
             return "I'm here to help you with movie bookings! Ask me about available movies, theaters, or how to book tickets.";
         }
+        return chatAnswerCache.get(userInput);
+    }
 
+    // Only reached after immediateAnswer came back empty
+    private String callGeminiForAnswer(String userInput) {
         try {
-            RestTemplate restTemplate = new RestTemplate();
-
-            // Enhanced prompt for movie context
-            String enhancedPrompt = "You are EasyBook AI assistant helping users with movie ticket bookings. " +
-                    "User question: " + userInput +
-                    "\n\nProvide helpful, friendly responses related to movies, bookings, or general assistance. " +
-                    "If the question is not about movies, still be helpful but gently guide them back to movie-related topics.";
-
-            String jsonPayload = "{ \"contents\": [{ \"parts\": [{ \"text\": \"" +
-                    enhancedPrompt.replace("\"", "\\\"") + "\" }]}]}";
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-
-            HttpEntity<String> entity = new HttpEntity<>(jsonPayload, headers);
-            String url = GEMINI_URL + apiKey;
-
-            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, entity, String.class);
-
-            System.out.println("🤖 Gemini Response: " + response.getBody());
-            return extractTextFromGeminiResponse(response.getBody());
-
+            return chatAnswerCache.get(userInput, () -> requestGeminiAnswer(userInput));
         } catch (Exception e) {
             System.err.println("❌ Gemini API Call Failed: " + e.getMessage());
-            return "I'm here to help you with movie bookings! Ask me about available movies, theaters, show timings, or how to book tickets.";
+            return FALLBACK_REPLY;
         }
     }
 
-    private String extractTextFromGeminiResponse(String response) {
-        try {
-            // Simple JSON parsing to extract text from Gemini response
-            if (response.contains("\"text\"")) {
-                int start = response.indexOf("\"text\":\"") + 8;
-                int end = response.indexOf("\"", start);
-                if (start > 7 && end > start) {
-                    return response.substring(start, end)
-                            .replace("\\n", "\n")
-                            .replace("\\\"", "\"")
-                            .replace("\\\\", "\\");
-                }
-            }
-            return response;
-        } catch (Exception e) {
-            return "I'm here to help you with movie bookings! How can I assist you today?";
-        }
+    private String requestGeminiAnswer(String userInput) {
+        return geminiClient.generateContent(prompt(userInput));
     }
-}
 
+    private static String prompt(String userInput) {
+        // Enhanced prompt for movie context
+        return "You are EasyBook AI assistant helping users with movie ticket bookings. " +
+                "User question: " + userInput +
+                "\n\nProvide helpful, friendly responses related to movies, bookings, or general assistance. " +
+                "If the question is not about movies, still be helpful but gently guide them back to movie-related topics.";
+    }
 
+    private record ChatSession(ConcurrentWebSocketSessionDecorator session, AtomicInteger inFlight, boolean streaming) {
+    }
+}
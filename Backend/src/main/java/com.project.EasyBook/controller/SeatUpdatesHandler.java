@@ -0,0 +1,211 @@
+package com.project.EasyBook.controller;
+
+import com.project.EasyBook.inventory.SeatChangeListener;
+import com.project.EasyBook.inventory.SeatInventory;
+import com.project.EasyBook.inventory.ShowSeatMap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes seat availability changes to clients subscribed to a show. Booking threads
+ * only mark a show as dirty; a single flusher thread coalesces the changes of each
+ * interval into one delta message per show and fans it out to the subscribers.
+ *
+ * Client messages: {"action":"subscribe","showId":12} and {"action":"unsubscribe","showId":12}.
+ */
+@Component
+public class SeatUpdatesHandler extends TextWebSocketHandler implements SeatChangeListener {
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Value("${easybook.seat-updates.interval:100ms}")
+    private Duration flushInterval;
+
+    @Value("${easybook.seat-updates.send-time-limit:5s}")
+    private Duration sendTimeLimit;
+
+    @Value("${easybook.seat-updates.buffer-size-limit:65536}")
+    private int bufferSizeLimit;
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<WebSocketSession>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> sentVersions = new ConcurrentHashMap<>();
+    private final Set<Integer> dirtyShows = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void start() {
+        seatInventory.addListener(this);
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("seat-updates-flusher").daemon(true).factory());
+        long interval = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdownNow();
+    }
+
+    @Override
+    public void seatsChanged(int showId) {
+        if (subscribers.containsKey(showId)) {
+            dirtyShows.add(showId);
+        }
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        // Deltas only apply on top of every earlier one, so a client that falls behind is
+        // disconnected rather than skipped ahead; it gets a snapshot when it resubscribes
+        sessions.put(session.getId(), new ConcurrentWebSocketSessionDecorator(session,
+                (int) sendTimeLimit.toMillis(), bufferSizeLimit,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        WebSocketSession decorated = sessions.get(session.getId());
+        if (decorated == null) {
+            return;
+        }
+
+        int showId;
+        String action;
+        try {
+            JSONObject request = new JSONObject(message.getPayload());
+            action = request.optString("action", "subscribe");
+            showId = request.getInt("showId");
+        } catch (JSONException e) {
+            decorated.sendMessage(new TextMessage(new JSONObject()
+                    .put("type", "error")
+                    .put("message", "Expected {\"action\":\"subscribe\",\"showId\":<id>}")
+                    .toString()));
+            return;
+        }
+
+        if ("unsubscribe".equals(action)) {
+            unsubscribe(showId, decorated);
+            return;
+        }
+
+        Optional<ShowSeatMap> found = seatInventory.find(showId);
+        if (found.isEmpty()) {
+            decorated.sendMessage(new TextMessage(new JSONObject()
+                    .put("type", "error")
+                    .put("message", "Show " + showId + " not found")
+                    .toString()));
+            return;
+        }
+        ShowSeatMap seatMap = found.get();
+        subscribers.computeIfAbsent(showId, id -> ConcurrentHashMap.newKeySet()).add(decorated);
+        sentVersions.putIfAbsent(showId, seatMap.getVersion());
+        decorated.sendMessage(new TextMessage(snapshotMessage(showId, seatMap.bitsSince(-1), seatMap)));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        WebSocketSession decorated = sessions.remove(session.getId());
+        if (decorated != null) {
+            subscribers.keySet().forEach(showId -> unsubscribe(showId, decorated));
+        }
+    }
+
+    private void unsubscribe(int showId, WebSocketSession session) {
+        subscribers.computeIfPresent(showId, (id, set) -> {
+            set.remove(session);
+            return set.isEmpty() ? null : set;
+        });
+        if (!subscribers.containsKey(showId)) {
+            sentVersions.remove(showId);
+        }
+    }
+
+    private void flush() {
+        for (Integer showId : dirtyShows) {
+            dirtyShows.remove(showId);
+            Set<WebSocketSession> targets = subscribers.get(showId);
+            if (targets == null || targets.isEmpty()) {
+                continue;
+            }
+            try {
+                ShowSeatMap seatMap = seatInventory.forShow(showId);
+                long fromVersion = sentVersions.getOrDefault(showId, -1L);
+                ShowSeatMap.SeatBits bits = seatMap.bitsSince(fromVersion);
+                String payload = bits.changedSlots() != null
+                        ? deltaMessage(showId, fromVersion, bits, seatMap)
+                        : snapshotMessage(showId, bits, seatMap);
+                sentVersions.put(showId, bits.version());
+
+                TextMessage message = new TextMessage(payload);
+                for (WebSocketSession session : targets) {
+                    send(session, message);
+                }
+            } catch (Exception e) {
+                System.err.println("Error pushing seat updates for show " + showId + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void send(WebSocketSession session, TextMessage message) {
+        try {
+            if (session.isOpen()) {
+                session.sendMessage(message);
+            }
+        } catch (Exception e) {
+            System.err.println("Closing seat updates for session " + session.getId() + ": " + e.getMessage());
+        }
+    }
+
+    private String snapshotMessage(int showId, ShowSeatMap.SeatBits bits, ShowSeatMap seatMap) {
+        JSONArray unavailable = new JSONArray();
+        for (int slot = 0; slot < seatMap.size(); slot++) {
+            if (bits.isTaken(slot)) {
+                unavailable.put(seatMap.getSeatId(slot));
+            }
+        }
+        return new JSONObject()
+                .put("type", "snapshot")
+                .put("showId", showId)
+                .put("version", bits.version())
+                .put("unavailable", unavailable)
+                .toString();
+    }
+
+    private String deltaMessage(int showId, long fromVersion, ShowSeatMap.SeatBits bits, ShowSeatMap seatMap) {
+        JSONArray unavailable = new JSONArray();
+        JSONArray available = new JSONArray();
+        for (int slot : bits.changedSlots()) {
+            (bits.isTaken(slot) ? unavailable : available).put(seatMap.getSeatId(slot));
+        }
+        return new JSONObject()
+                .put("type", "delta")
+                .put("showId", showId)
+                .put("fromVersion", fromVersion)
+                .put("version", bits.version())
+                .put("unavailable", unavailable)
+                .put("available", available)
+                .toString();
+    }
+}
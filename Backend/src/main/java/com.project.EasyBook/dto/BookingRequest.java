@@ -6,6 +6,8 @@ import java.util.List;
 public class BookingRequest {
     
     private Integer bookingId;
+    private Integer userId;
+    private String orderId;
     private int showId;
     private int movieId;
     private List<Integer> seats;
@@ -49,6 +51,22 @@ public class BookingRequest {
         this.bookingId = bookingId;
     }
 
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Integer userId) {
+        this.userId = userId;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
     public int getShowId() {
         return showId;
     }
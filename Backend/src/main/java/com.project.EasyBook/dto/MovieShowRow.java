@@ -0,0 +1,20 @@
+package com.project.EasyBook.dto;
+
+import java.time.LocalDateTime;
+
+public interface MovieShowRow {
+
+    String getCity();
+
+    Integer getTheaterId();
+
+    String getTheaterName();
+
+    Integer getShowId();
+
+    String getTiming();
+
+    LocalDateTime getStartTime();
+
+    Integer getAvailableSeats();
+}
@@ -0,0 +1,48 @@
+package com.project.EasyBook.dto;
+
+import com.project.EasyBook.util.KeysetCursor;
+
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+public class PageResponse<T> {
+
+    private List<T> items;
+    private String nextCursor;
+
+    public PageResponse() {
+    }
+
+    public PageResponse(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from rows fetched with one extra row beyond {@code limit}, the
+     * extra row only tells whether another page exists.
+     */
+    public static <T> PageResponse<T> of(List<T> rows, int limit, ToIntFunction<T> id) {
+        if (rows.size() <= limit) {
+            return new PageResponse<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new PageResponse<>(items, KeysetCursor.encode(id.applyAsInt(items.get(limit - 1))));
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,10 @@
+package com.project.EasyBook.dto;
+
+public interface SeatCountView {
+
+    Integer getShowId();
+
+    Long getTotalSeats();
+
+    Long getFreeSeats();
+}
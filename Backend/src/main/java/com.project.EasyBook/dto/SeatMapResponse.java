@@ -0,0 +1,133 @@
+package com.project.EasyBook.dto;
+
+import java.util.List;
+
+public class SeatMapResponse {
+
+    private int showId;
+    private String movieTitle;
+    private String theaterName;
+    private String city;
+    private String timing;
+    private long version;
+    private int availableSeats;
+    private List<SeatState> seats;
+
+    public SeatMapResponse() {
+    }
+
+    public SeatMapResponse(ShowHeaderView header, long version, int availableSeats, List<SeatState> seats) {
+        this.showId = header.getShowId();
+        this.movieTitle = header.getMovieTitle();
+        this.theaterName = header.getTheaterName();
+        this.city = header.getCity();
+        this.timing = header.getTiming();
+        this.version = version;
+        this.availableSeats = availableSeats;
+        this.seats = seats;
+    }
+
+    public int getShowId() {
+        return showId;
+    }
+
+    public void setShowId(int showId) {
+        this.showId = showId;
+    }
+
+    public String getMovieTitle() {
+        return movieTitle;
+    }
+
+    public void setMovieTitle(String movieTitle) {
+        this.movieTitle = movieTitle;
+    }
+
+    public String getTheaterName() {
+        return theaterName;
+    }
+
+    public void setTheaterName(String theaterName) {
+        this.theaterName = theaterName;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getTiming() {
+        return timing;
+    }
+
+    public void setTiming(String timing) {
+        this.timing = timing;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    public void setAvailableSeats(int availableSeats) {
+        this.availableSeats = availableSeats;
+    }
+
+    public List<SeatState> getSeats() {
+        return seats;
+    }
+
+    public void setSeats(List<SeatState> seats) {
+        this.seats = seats;
+    }
+
+    public static class SeatState {
+
+        private int seatId;
+        private String seatNumber;
+        private boolean booked;
+
+        public SeatState() {
+        }
+
+        public SeatState(int seatId, String seatNumber, boolean booked) {
+            this.seatId = seatId;
+            this.seatNumber = seatNumber;
+            this.booked = booked;
+        }
+
+        public int getSeatId() {
+            return seatId;
+        }
+
+        public void setSeatId(int seatId) {
+            this.seatId = seatId;
+        }
+
+        public String getSeatNumber() {
+            return seatNumber;
+        }
+
+        public void setSeatNumber(String seatNumber) {
+            this.seatNumber = seatNumber;
+        }
+
+        public boolean isBooked() {
+            return booked;
+        }
+
+        public void setBooked(boolean booked) {
+            this.booked = booked;
+        }
+    }
+}
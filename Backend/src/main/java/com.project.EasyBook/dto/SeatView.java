@@ -0,0 +1,10 @@
+package com.project.EasyBook.dto;
+
+public interface SeatView {
+
+    Integer getSeatId();
+
+    String getSeatNumber();
+
+    Boolean getBooked();
+}
@@ -0,0 +1,8 @@
+package com.project.EasyBook.dto;
+
+public interface ShowAvailabilityView {
+
+    Integer getShowId();
+
+    Integer getAvailableSeats();
+}
@@ -0,0 +1,14 @@
+package com.project.EasyBook.dto;
+
+public interface ShowHeaderView {
+
+    Integer getShowId();
+
+    String getMovieTitle();
+
+    String getTheaterName();
+
+    String getCity();
+
+    String getTiming();
+}
@@ -0,0 +1,106 @@
+package com.project.EasyBook.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+public class ShowScheduleRequest {
+
+    private int movieId;
+    private int theaterId;
+
+    // Either explicit start times, or the same daily times repeated over a range of days
+    private List<LocalDateTime> startTimes;
+    private LocalDate fromDate;
+    private Integer days;
+    private List<LocalTime> dailyTimes;
+
+    private List<SeatRowSpec> layout;
+
+    public int getMovieId() {
+        return movieId;
+    }
+
+    public void setMovieId(int movieId) {
+        this.movieId = movieId;
+    }
+
+    public int getTheaterId() {
+        return theaterId;
+    }
+
+    public void setTheaterId(int theaterId) {
+        this.theaterId = theaterId;
+    }
+
+    public List<LocalDateTime> getStartTimes() {
+        return startTimes;
+    }
+
+    public void setStartTimes(List<LocalDateTime> startTimes) {
+        this.startTimes = startTimes;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public Integer getDays() {
+        return days;
+    }
+
+    public void setDays(Integer days) {
+        this.days = days;
+    }
+
+    public List<LocalTime> getDailyTimes() {
+        return dailyTimes;
+    }
+
+    public void setDailyTimes(List<LocalTime> dailyTimes) {
+        this.dailyTimes = dailyTimes;
+    }
+
+    public List<SeatRowSpec> getLayout() {
+        return layout;
+    }
+
+    public void setLayout(List<SeatRowSpec> layout) {
+        this.layout = layout;
+    }
+
+    public static class SeatRowSpec {
+
+        private String row;
+        private int seats;
+
+        public SeatRowSpec() {
+        }
+
+        public SeatRowSpec(String row, int seats) {
+            this.row = row;
+            this.seats = seats;
+        }
+
+        public String getRow() {
+            return row;
+        }
+
+        public void setRow(String row) {
+            this.row = row;
+        }
+
+        public int getSeats() {
+            return seats;
+        }
+
+        public void setSeats(int seats) {
+            this.seats = seats;
+        }
+    }
+}
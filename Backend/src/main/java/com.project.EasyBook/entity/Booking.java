@@ -3,6 +3,8 @@ package com.project.EasyBook.entity;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
 
 @Entity
 @Table(name = "bookings")
@@ -12,13 +14,14 @@ public class Booking {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int bookingId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private User user;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Show show;
 
-    private String seatsBooked;
+    @OneToMany(mappedBy = "booking", cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<BookingSeat> seats = new ArrayList<>();
 
     @Column(nullable = false)
     private BigDecimal totalPrice;
@@ -26,11 +29,10 @@ public class Booking {
     public Booking() {
     }
 
-    public Booking(int bookingId, User user, Show show, String seatsBooked, BigDecimal totalPrice) {
+    public Booking(int bookingId, User user, Show show, BigDecimal totalPrice) {
         this.bookingId = bookingId;
         this.user = user;
         this.show = show;
-        this.seatsBooked = seatsBooked;
         this.totalPrice = totalPrice;
     }
 
@@ -58,12 +60,16 @@ public class Booking {
         this.show = show;
     }
 
-    public String getSeatsBooked() {
-        return seatsBooked;
+    public List<BookingSeat> getSeats() {
+        return seats;
     }
 
-    public void setSeatsBooked(String seatsBooked) {
-        this.seatsBooked = seatsBooked;
+    public void addSeat(int showId, int seatId) {
+        seats.add(new BookingSeat(this, showId, seatId));
+    }
+
+    public List<Integer> getSeatIds() {
+        return seats.stream().map(BookingSeat::getSeatId).toList();
     }
 
     public BigDecimal getTotalPrice() {
@@ -0,0 +1,89 @@
+package com.project.EasyBook.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * One booked seat of a booking. Keyed by show and seat, so the database itself refuses
+ * a second booking of the same seat. Hibernate lays the key out as (seat_id, show_id),
+ * the show index keeps lookups by show alone on an index as well.
+ */
+@Entity
+@IdClass(BookingSeat.Key.class)
+@Table(name = "booking_seat", indexes = {
+        @Index(name = "idx_booking_seat_show", columnList = "show_id"),
+        @Index(name = "idx_booking_seat_booking", columnList = "booking_id")
+})
+public class BookingSeat {
+
+    @Id
+    @Column(name = "show_id")
+    private int showId;
+
+    @Id
+    @Column(name = "seat_id")
+    private int seatId;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "booking_id", nullable = false)
+    private Booking booking;
+
+    public BookingSeat() {
+    }
+
+    public BookingSeat(Booking booking, int showId, int seatId) {
+        this.booking = booking;
+        this.showId = showId;
+        this.seatId = seatId;
+    }
+
+    public int getShowId() {
+        return showId;
+    }
+
+    public void setShowId(int showId) {
+        this.showId = showId;
+    }
+
+    public int getSeatId() {
+        return seatId;
+    }
+
+    public void setSeatId(int seatId) {
+        this.seatId = seatId;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public void setBooking(Booking booking) {
+        this.booking = booking;
+    }
+
+    public static class Key implements Serializable {
+
+        private int showId;
+        private int seatId;
+
+        public Key() {
+        }
+
+        public Key(int showId, int seatId) {
+            this.showId = showId;
+            this.seatId = seatId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && showId == key.showId && seatId == key.seatId;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(showId, seatId);
+        }
+    }
+}
@@ -4,7 +4,10 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "movies")
+@Table(name = "movies", indexes = {
+        @Index(name = "idx_movies_genre", columnList = "gener"),
+        @Index(name = "idx_movies_lang", columnList = "lang")
+})
 public class Movie {
 
     @Id
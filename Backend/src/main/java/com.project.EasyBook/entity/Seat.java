@@ -10,7 +10,7 @@ public class Seat {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Integer seatId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "show_id")
     private Show show;
 
@@ -20,6 +20,10 @@ public class Seat {
     @Column(name = "is_booked")
     private Boolean isBooked = false;
 
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     public Seat() {
     }
 
@@ -62,6 +66,14 @@ public class Seat {
         isBooked = booked;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public boolean isBooked() {
         return Boolean.TRUE.equals(this.isBooked);
     }
@@ -2,25 +2,41 @@ package com.project.EasyBook.entity;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "shows")
+@NamedEntityGraph(name = Show.WITH_MOVIE_AND_THEATER, attributeNodes = {
+        @NamedAttributeNode("movie"),
+        @NamedAttributeNode("theater")
+})
+@Table(name = "shows", indexes = {
+        @Index(name = "idx_shows_movie_theater", columnList = "movie_id, theater_id"),
+        @Index(name = "idx_shows_movie_start", columnList = "movie_id, start_time"),
+        @Index(name = "idx_shows_theater_start", columnList = "theater_id, start_time")
+})
 public class Show {
 
+    public static final String WITH_MOVIE_AND_THEATER = "Show.withMovieAndTheater";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int showId;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "movie_id")
     private Movie movie;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "theater_id")
     private Theater theater;
 
     private String timing;
+
+    // Null for shows scheduled before start times existed, those never count as expired
+    @Column(name = "start_time")
+    private LocalDateTime startTime;
+
     private int availableSeats;
 
     public Show() {
@@ -70,6 +86,18 @@ public class Show {
         this.timing = timing;
     }
 
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalDateTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return startTime != null && startTime.isBefore(now);
+    }
+
     public int getAvailableSeats() {
         return availableSeats;
     }
@@ -4,7 +4,9 @@ import jakarta.persistence.*;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 @Entity
-@Table(name = "theaters")
+@Table(name = "theaters", indexes = {
+        @Index(name = "idx_theaters_city", columnList = "city")
+})
 public class Theater {
 
     @Id
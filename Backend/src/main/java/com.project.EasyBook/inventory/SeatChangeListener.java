@@ -0,0 +1,10 @@
+package com.project.EasyBook.inventory;
+
+/**
+ * Notified while a show's seat map is being modified, so implementations must only
+ * record the show id and return.
+ */
+public interface SeatChangeListener {
+
+    void seatsChanged(int showId);
+}
@@ -0,0 +1,62 @@
+package com.project.EasyBook.inventory;
+
+import java.util.List;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SeatHold implements Delayed {
+
+    private final int showId;
+    private final List<Integer> seatIds;
+    private final long expiresAtNanos;
+    private final long expiresAtMillis;
+    private final AtomicBoolean settled = new AtomicBoolean(false);
+    private volatile String orderId;
+
+    public SeatHold(int showId, List<Integer> seatIds, long ttlMillis) {
+        this.showId = showId;
+        this.seatIds = List.copyOf(seatIds);
+        this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.expiresAtMillis = System.currentTimeMillis() + ttlMillis;
+    }
+
+    public int getShowId() {
+        return showId;
+    }
+
+    public List<Integer> getSeatIds() {
+        return seatIds;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public boolean covers(int showId, List<Integer> seatIds) {
+        return this.showId == showId && this.seatIds.size() == seatIds.size() && this.seatIds.containsAll(seatIds);
+    }
+
+    // Exactly one of confirm, cancel or expiry gets to settle a hold.
+    boolean settle() {
+        return settled.compareAndSet(false, true);
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+        return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+        return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+    }
+}
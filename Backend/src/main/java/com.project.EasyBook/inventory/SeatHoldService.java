@@ -0,0 +1,133 @@
+package com.project.EasyBook.inventory;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+
+/**
+ * Reserves seats between payment order creation and booking confirmation. Holds
+ * expire on their own through a delay queue drained by a single daemon thread.
+ */
+@Service
+public class SeatHoldService {
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Value("${easybook.seat-hold.ttl:8m}")
+    private Duration ttl;
+
+    private final DelayQueue<SeatHold> expiries = new DelayQueue<>();
+    private final ConcurrentHashMap<String, SeatHold> holdsByOrder = new ConcurrentHashMap<>();
+    private Thread expiryThread;
+
+    @PostConstruct
+    public void start() {
+        expiryThread = Thread.ofPlatform()
+                .name("seat-hold-expiry")
+                .daemon(true)
+                .start(this::drainExpired);
+    }
+
+    @PreDestroy
+    public void stop() {
+        expiryThread.interrupt();
+    }
+
+    public SeatHold hold(int showId, List<Integer> seatIds) {
+        if (!seatInventory.hold(showId, seatIds)) {
+            return null;
+        }
+        SeatHold hold = new SeatHold(showId, seatIds, ttl.toMillis());
+        expiries.put(hold);
+        return hold;
+    }
+
+    /**
+     * Holds seats for a retried checkout. The hold of {@code orderId}, if it is still
+     * live, is given up in the same step, so an order is never blocked by its own seats.
+     */
+    public SeatHold rehold(String orderId, int showId, List<Integer> seatIds) {
+        SeatHold previous = orderId == null ? null : holdsByOrder.get(orderId);
+        if (previous == null || previous.getShowId() != showId || !previous.settle()) {
+            cancel(orderId);
+            return hold(showId, seatIds);
+        }
+        holdsByOrder.remove(orderId, previous);
+        if (!seatInventory.rehold(showId, previous.getSeatIds(), seatIds)) {
+            return null;
+        }
+        SeatHold hold = new SeatHold(showId, seatIds, ttl.toMillis());
+        expiries.put(hold);
+        return hold;
+    }
+
+    public void attach(SeatHold hold, String orderId) {
+        hold.setOrderId(orderId);
+        holdsByOrder.put(orderId, hold);
+    }
+
+    /**
+     * Removes the hold for the order so its seats can be booked. Returns null if the
+     * order has no hold or it already expired.
+     */
+    public SeatHold take(String orderId) {
+        if (orderId == null) {
+            return null;
+        }
+        SeatHold hold = holdsByOrder.remove(orderId);
+        if (hold == null || !hold.settle()) {
+            return null;
+        }
+        return hold;
+    }
+
+    /**
+     * Releases the hold of an order whose payment was dismissed or failed. Returns false
+     * if the order has no live hold.
+     */
+    public boolean cancel(String orderId) {
+        SeatHold hold = orderId == null ? null : holdsByOrder.get(orderId);
+        if (hold == null || !hold.settle()) {
+            return false;
+        }
+        discard(hold);
+        return true;
+    }
+
+    public void release(SeatHold hold) {
+        if (hold.settle()) {
+            discard(hold);
+        }
+    }
+
+    private void drainExpired() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                SeatHold hold = expiries.take();
+                if (hold.settle()) {
+                    discard(hold);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                System.err.println("Error releasing expired seat hold: " + e.getMessage());
+            }
+        }
+    }
+
+    // Settled holds stay queued until their deadline, the expiry thread skips them.
+    private void discard(SeatHold hold) {
+        if (hold.getOrderId() != null) {
+            holdsByOrder.remove(hold.getOrderId(), hold);
+        }
+        seatInventory.releaseHold(hold.getShowId(), hold.getSeatIds());
+    }
+}
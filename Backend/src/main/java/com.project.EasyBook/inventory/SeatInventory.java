@@ -0,0 +1,166 @@
+package com.project.EasyBook.inventory;
+
+import com.project.EasyBook.dto.SeatView;
+import com.project.EasyBook.repository.SeatRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Seat maps of the shows currently being booked. Only shows that have seats are kept,
+ * and a map nobody used for {@code easybook.seat-inventory.idle-timeout} is dropped
+ * unless it still carries held seats, so past shows and stray ids do not pile up.
+ */
+@Component
+public class SeatInventory {
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Value("${easybook.seat-inventory.idle-timeout:30m}")
+    private Duration idleTimeout;
+
+    private final ConcurrentHashMap<Integer, ShowSeatMap> shows = new ConcurrentHashMap<>();
+    private final List<SeatChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("seat-inventory-sweep").daemon(true).factory());
+        long interval = Math.max(1000, idleTimeout.toMillis() / 2);
+        sweeper.scheduleWithFixedDelay(this::evictIdle, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        sweeper.shutdownNow();
+    }
+
+    public void addListener(SeatChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Seat map of the show, empty when the show has no seats or does not exist. Such ids
+     * are looked up again on every call instead of being cached.
+     */
+    public Optional<ShowSeatMap> find(int showId) {
+        ShowSeatMap seatMap = shows.computeIfAbsent(showId, this::load);
+        if (seatMap == null) {
+            return Optional.empty();
+        }
+        seatMap.touch();
+        return Optional.of(seatMap);
+    }
+
+    public ShowSeatMap forShow(int showId) {
+        return find(showId).orElseGet(() -> new ShowSeatMap(showId, new int[0], new String[0], new boolean[0], null));
+    }
+
+    public boolean containsAll(int showId, List<Integer> seatIds) {
+        return forShow(showId).containsAll(seatIds);
+    }
+
+    public boolean isAvailable(int showId, List<Integer> seatIds) {
+        return forShow(showId).isAvailable(seatIds);
+    }
+
+    public boolean claim(int showId, List<Integer> seatIds) {
+        return forShow(showId).claim(seatIds);
+    }
+
+    public boolean claimHeld(int showId, List<Integer> seatIds) {
+        return forShow(showId).claimHeld(seatIds);
+    }
+
+    public void release(int showId, List<Integer> seatIds) {
+        forShow(showId).release(seatIds);
+    }
+
+    public boolean hold(int showId, List<Integer> seatIds) {
+        return underMapLock(showId, seatMap -> seatMap.hold(seatIds));
+    }
+
+    public boolean rehold(int showId, List<Integer> released, List<Integer> requested) {
+        return underMapLock(showId, seatMap -> seatMap.rehold(released, requested));
+    }
+
+    public void releaseHold(int showId, List<Integer> seatIds) {
+        forShow(showId).releaseHold(seatIds);
+    }
+
+    /**
+     * Re-reads the booked state of the given seats from the seat table. The rest of the
+     * map, including every other order's held seats, is left as it is.
+     */
+    public void resync(int showId, List<Integer> seatIds) {
+        ShowSeatMap seatMap = shows.get(showId);
+        if (seatMap != null) {
+            seatMap.markBooked(seatRepository.findBookedSeatIds(showId, seatIds));
+        }
+    }
+
+    /**
+     * Runs a hold against the show's map while holding the map's entry, the same lock the
+     * idle sweep takes, so the map cannot be dropped between the lookup and the hold.
+     */
+    private boolean underMapLock(int showId, Predicate<ShowSeatMap> action) {
+        boolean[] result = new boolean[1];
+        shows.compute(showId, (id, seatMap) -> {
+            ShowSeatMap current = seatMap != null ? seatMap : load(id);
+            if (current != null) {
+                current.touch();
+                result[0] = action.test(current);
+            }
+            return current;
+        });
+        return result[0];
+    }
+
+    // Holds only live in the map, dropping one that still has them would free those seats
+    private void evictIdle() {
+        long cutoff = System.nanoTime() - idleTimeout.toNanos();
+        for (Integer showId : shows.keySet()) {
+            shows.computeIfPresent(showId, (id, seatMap) ->
+                    seatMap.getLastUsed() - cutoff < 0 && !seatMap.hasHeldSeats() ? null : seatMap);
+        }
+    }
+
+    // Null for shows without seats, computeIfAbsent then caches nothing
+    private ShowSeatMap load(int showId) {
+        List<SeatView> seats = seatRepository.findSeatViewsByShowId(showId);
+        if (seats.isEmpty()) {
+            return null;
+        }
+
+        int[] seatIds = new int[seats.size()];
+        String[] seatNumbers = new String[seats.size()];
+        boolean[] booked = new boolean[seats.size()];
+        for (int i = 0; i < seats.size(); i++) {
+            SeatView seat = seats.get(i);
+            seatIds[i] = seat.getSeatId();
+            seatNumbers[i] = seat.getSeatNumber();
+            booked[i] = Boolean.TRUE.equals(seat.getBooked());
+        }
+        return new ShowSeatMap(showId, seatIds, seatNumbers, booked, this::fireSeatsChanged);
+    }
+
+    private void fireSeatsChanged(int showId) {
+        for (SeatChangeListener listener : listeners) {
+            listener.seatsChanged(showId);
+        }
+    }
+}
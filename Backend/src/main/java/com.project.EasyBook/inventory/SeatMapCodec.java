@@ -0,0 +1,97 @@
+package com.project.EasyBook.inventory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary seat map format served as {@value #MEDIA_TYPE}. All numbers are big-endian.
+ *
+ * <pre>
+ * header : 'E' 'B' formatVersion(1) kind(1)  showId(int)  seatMapVersion(long)
+ * FULL   : seatCount(short) rowCount(short)
+ *          rowCount x [ labelLength(byte) label(UTF-8) seats(short) ]
+ *          seatCount x seatId delta from the previous id (unsigned varint)
+ *          bitmap, (seatCount + 7) / 8 bytes, bit (slot % 8) of byte (slot / 8) set = unavailable
+ * DELTA  : changeCount(short)
+ *          changeCount x [ slot &lt;&lt; 1 | unavailable (unsigned short) ]
+ * </pre>
+ */
+public final class SeatMapCodec {
+
+    public static final String MEDIA_TYPE = "application/vnd.easybook.seatmap";
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int KIND_FULL = 0;
+    private static final int KIND_DELTA = 1;
+
+    private SeatMapCodec() {
+    }
+
+    public static byte[] encode(ShowSeatMap seatMap, Long sinceVersion) {
+        ShowSeatMap.SeatBits bits = seatMap.bitsSince(sinceVersion == null ? -1 : sinceVersion);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bits.changedSlots() != null ? 32 : 64 + seatMap.size() * 2);
+        try (DataOutputStream out = new DataOutputStream(buffer)) {
+            out.writeByte('E');
+            out.writeByte('B');
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(bits.changedSlots() != null ? KIND_DELTA : KIND_FULL);
+            out.writeInt(seatMap.getShowId());
+            out.writeLong(bits.version());
+
+            if (bits.changedSlots() != null) {
+                writeDelta(out, bits);
+            } else {
+                writeFull(out, seatMap, bits);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void writeDelta(DataOutputStream out, ShowSeatMap.SeatBits bits) throws IOException {
+        int[] changed = bits.changedSlots();
+        out.writeShort(changed.length);
+        for (int slot : changed) {
+            out.writeShort(slot << 1 | (bits.isTaken(slot) ? 1 : 0));
+        }
+    }
+
+    private static void writeFull(DataOutputStream out, ShowSeatMap seatMap, ShowSeatMap.SeatBits bits) throws IOException {
+        int seatCount = seatMap.size();
+        out.writeShort(seatCount);
+        out.writeShort(seatMap.rows().size());
+        for (ShowSeatMap.SeatRow row : seatMap.rows()) {
+            byte[] label = row.label().getBytes(StandardCharsets.UTF_8);
+            out.writeByte(label.length);
+            out.write(label);
+            out.writeShort(row.seats());
+        }
+
+        int previous = 0;
+        for (int slot = 0; slot < seatCount; slot++) {
+            int seatId = seatMap.getSeatId(slot);
+            writeVarint(out, seatId - previous);
+            previous = seatId;
+        }
+
+        byte[] bitmap = new byte[(seatCount + 7) >>> 3];
+        for (int slot = 0; slot < seatCount; slot++) {
+            if (bits.isTaken(slot)) {
+                bitmap[slot >>> 3] |= (byte) (1 << (slot & 7));
+            }
+        }
+        out.write(bitmap);
+    }
+
+    private static void writeVarint(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+}
@@ -0,0 +1,89 @@
+package com.project.EasyBook.inventory;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes booking work per show without a lock object per show: show ids are
+ * hashed onto a fixed array of stripes, so a busy show only contends with the few
+ * shows sharing its stripe.
+ */
+@Component
+public class ShowLockManager {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final Timer waitTimer;
+
+    public ShowLockManager(@Value("${easybook.booking.lock-stripes:64}") int stripeCount, MeterRegistry meterRegistry) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+
+        this.waitTimer = Timer.builder("easybook.show.lock.wait")
+                .description("Time spent waiting for a show booking lock")
+                .register(meterRegistry);
+        Gauge.builder("easybook.show.lock.queue", this, ShowLockManager::queuedThreads)
+                .description("Threads currently waiting on show booking locks")
+                .register(meterRegistry);
+        Gauge.builder("easybook.show.lock.queue.max", this, ShowLockManager::longestQueue)
+                .description("Longest wait queue on a single show lock stripe")
+                .register(meterRegistry);
+    }
+
+    public Held lock(int showId) {
+        ReentrantLock lock = stripes[spread(showId) & mask];
+        long start = System.nanoTime();
+        lock.lock();
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return new Held(lock);
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    private int queuedThreads() {
+        int total = 0;
+        for (ReentrantLock lock : stripes) {
+            total += lock.getQueueLength();
+        }
+        return total;
+    }
+
+    private int longestQueue() {
+        int max = 0;
+        for (ReentrantLock lock : stripes) {
+            max = Math.max(max, lock.getQueueLength());
+        }
+        return max;
+    }
+
+    private static int spread(int showId) {
+        int h = showId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    public static final class Held implements AutoCloseable {
+
+        private final ReentrantLock lock;
+
+        private Held(ReentrantLock lock) {
+            this.lock = lock;
+        }
+
+        @Override
+        public void close() {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.project.EasyBook.inventory;
+
+import com.project.EasyBook.dto.SeatMapResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory seat state of a single show. Seats are addressed by a dense slot index
+ * and their booked and held flags are packed into bitmaps, so checks and claims only
+ * touch the requested seats.
+ */
+public class ShowSeatMap {
+
+    private static final int CHANGE_LOG_SIZE = 1024;
+
+    private final int showId;
+    private final int[] seatIds;
+    private final String[] seatNumbers;
+    private final Map<Integer, Integer> slotBySeatId;
+    private final long[] booked;
+    private final long[] held;
+
+    // Version starts at a wall-clock based epoch so a reloaded map never reuses versions
+    // handed out by the instance it replaced. Kept below 2^53 so it survives JSON clients.
+    private final long baseVersion = System.currentTimeMillis() << 10;
+    private long version = baseVersion;
+    private final int[] changeLog = new int[CHANGE_LOG_SIZE];
+    private List<SeatRow> rows;
+    private final SeatChangeListener listener;
+    private volatile long lastUsed = System.nanoTime();
+
+    public ShowSeatMap(int showId, int[] seatIds, String[] seatNumbers, boolean[] bookedFlags, SeatChangeListener listener) {
+        this.showId = showId;
+        this.listener = listener;
+        this.seatIds = seatIds;
+        this.seatNumbers = seatNumbers;
+        this.slotBySeatId = new HashMap<>(seatIds.length * 2);
+        this.booked = new long[(seatIds.length + 63) >>> 6];
+        this.held = new long[booked.length];
+
+        for (int slot = 0; slot < seatIds.length; slot++) {
+            slotBySeatId.put(seatIds[slot], slot);
+            if (bookedFlags[slot]) {
+                set(booked, slot);
+            }
+        }
+    }
+
+    public int getShowId() {
+        return showId;
+    }
+
+    public int size() {
+        return seatIds.length;
+    }
+
+    void touch() {
+        lastUsed = System.nanoTime();
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    synchronized boolean hasHeldSeats() {
+        for (long bits : held) {
+            if (bits != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized boolean containsAll(List<Integer> requested) {
+        for (Integer seatId : requested) {
+            if (seatId == null || !slotBySeatId.containsKey(seatId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized boolean isAvailable(List<Integer> requested) {
+        for (Integer seatId : requested) {
+            Integer slot = seatId == null ? null : slotBySeatId.get(seatId);
+            if (slot == null || isTaken(slot)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks all requested seats as booked, or none of them if any seat is unknown,
+     * already booked or held, or requested twice.
+     */
+    public synchronized boolean claim(List<Integer> requested) {
+        return takeFree(requested, booked);
+    }
+
+    /**
+     * Turns seats held for an order into booked seats. Fails without changes unless
+     * every requested seat is currently held.
+     */
+    public synchronized boolean claimHeld(List<Integer> requested) {
+        for (Integer seatId : requested) {
+            Integer slot = seatId == null ? null : slotBySeatId.get(seatId);
+            if (slot == null || !get(held, slot) || get(booked, slot)) {
+                return false;
+            }
+        }
+        for (Integer seatId : requested) {
+            int slot = slotBySeatId.get(seatId);
+            clear(held, slot);
+            set(booked, slot);
+        }
+        return true;
+    }
+
+    /**
+     * Marks seats as booked that the seat table reports as booked. A seat held for
+     * another order stays held, its confirmation then fails on the booked flag.
+     */
+    public synchronized void markBooked(List<Integer> seatIdsBooked) {
+        for (Integer seatId : seatIdsBooked) {
+            Integer slot = seatId == null ? null : slotBySeatId.get(seatId);
+            if (slot != null && !get(booked, slot)) {
+                boolean wasTaken = isTaken(slot);
+                set(booked, slot);
+                if (!wasTaken) {
+                    recordFlip(slot);
+                }
+            }
+        }
+    }
+
+    public synchronized boolean hold(List<Integer> requested) {
+        return takeFree(requested, held);
+    }
+
+    /**
+     * Swaps one hold for another under a single lock, so seats kept across the swap
+     * are never free in between. The released seats stay released if the new hold fails.
+     */
+    public synchronized boolean rehold(List<Integer> released, List<Integer> requested) {
+        clearAll(released, held);
+        return takeFree(requested, held);
+    }
+
+    public synchronized void releaseHold(List<Integer> requested) {
+        clearAll(requested, held);
+    }
+
+    public synchronized void release(List<Integer> requested) {
+        clearAll(requested, booked);
+    }
+
+    public synchronized int availableCount() {
+        int takenCount = 0;
+        for (int i = 0; i < booked.length; i++) {
+            takenCount += Long.bitCount(booked[i] | held[i]);
+        }
+        return seatIds.length - takenCount;
+    }
+
+    public synchronized boolean isBookedSeat(int seatId) {
+        Integer slot = slotBySeatId.get(seatId);
+        return slot != null && get(booked, slot);
+    }
+
+    public synchronized boolean isUnavailableSeat(int seatId) {
+        Integer slot = slotBySeatId.get(seatId);
+        return slot != null && isTaken(slot);
+    }
+
+    public synchronized List<SeatMapResponse.SeatState> seatStates() {
+        List<SeatMapResponse.SeatState> states = new ArrayList<>(seatIds.length);
+        for (int slot = 0; slot < seatIds.length; slot++) {
+            states.add(new SeatMapResponse.SeatState(seatIds[slot], seatNumbers[slot], isTaken(slot)));
+        }
+        return states;
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    /**
+     * Copies the unavailable-seat bitmap together with the slots that flipped after
+     * {@code sinceVersion}. The changed slots are null when the caller has no usable
+     * version, or when it is older than the change log reaches back.
+     */
+    public synchronized SeatBits bitsSince(long sinceVersion) {
+        long[] taken = new long[booked.length];
+        for (int i = 0; i < taken.length; i++) {
+            taken[i] = booked[i] | held[i];
+        }
+
+        int[] changed = null;
+        if (sinceVersion >= baseVersion && sinceVersion <= version && version - sinceVersion <= CHANGE_LOG_SIZE) {
+            long[] seen = new long[booked.length];
+            int[] slots = new int[(int) (version - sinceVersion)];
+            int count = 0;
+            for (long v = sinceVersion + 1; v <= version; v++) {
+                int slot = changeLog[(int) (v & (CHANGE_LOG_SIZE - 1))];
+                if (!get(seen, slot)) {
+                    set(seen, slot);
+                    slots[count++] = slot;
+                }
+            }
+            changed = Arrays.copyOf(slots, count);
+        }
+        return new SeatBits(version, taken, changed);
+    }
+
+    /**
+     * Rows of consecutive seats sharing the same non-numeric seat number prefix, e.g.
+     * A1..A12 form row "A". Purely numeric seat numbers form a single unnamed row.
+     */
+    public synchronized List<SeatRow> rows() {
+        if (rows == null) {
+            List<SeatRow> grouped = new ArrayList<>();
+            String label = null;
+            int count = 0;
+            for (String seatNumber : seatNumbers) {
+                String rowLabel = rowLabel(seatNumber);
+                if (label != null && !label.equals(rowLabel)) {
+                    grouped.add(new SeatRow(label, count));
+                    count = 0;
+                }
+                label = rowLabel;
+                count++;
+            }
+            if (label != null) {
+                grouped.add(new SeatRow(label, count));
+            }
+            rows = List.copyOf(grouped);
+        }
+        return rows;
+    }
+
+    private static String rowLabel(String seatNumber) {
+        if (seatNumber == null) {
+            return "";
+        }
+        int end = 0;
+        while (end < seatNumber.length() && !Character.isDigit(seatNumber.charAt(end))) {
+            end++;
+        }
+        return seatNumber.substring(0, end).trim();
+    }
+
+    public int getSeatId(int slot) {
+        return seatIds[slot];
+    }
+
+    public String getSeatNumber(int slot) {
+        return seatNumbers[slot];
+    }
+
+    private boolean takeFree(List<Integer> requested, long[] target) {
+        int[] taken = new int[requested.size()];
+        int count = 0;
+        for (Integer seatId : requested) {
+            Integer slot = seatId == null ? null : slotBySeatId.get(seatId);
+            if (slot == null || isTaken(slot)) {
+                for (int i = 0; i < count; i++) {
+                    clear(target, taken[i]);
+                }
+                return false;
+            }
+            set(target, slot);
+            taken[count++] = slot;
+        }
+        for (int i = 0; i < count; i++) {
+            recordFlip(taken[i]);
+        }
+        return true;
+    }
+
+    private void clearAll(List<Integer> requested, long[] target) {
+        for (Integer seatId : requested) {
+            Integer slot = seatId == null ? null : slotBySeatId.get(seatId);
+            if (slot != null && get(target, slot)) {
+                clear(target, slot);
+                if (!isTaken(slot)) {
+                    recordFlip(slot);
+                }
+            }
+        }
+    }
+
+    private void recordFlip(int slot) {
+        version++;
+        changeLog[(int) (version & (CHANGE_LOG_SIZE - 1))] = slot;
+        if (listener != null) {
+            listener.seatsChanged(showId);
+        }
+    }
+
+    private boolean isTaken(int slot) {
+        return get(booked, slot) || get(held, slot);
+    }
+
+    public record SeatRow(String label, int seats) {
+    }
+
+    public record SeatBits(long version, long[] taken, int[] changedSlots) {
+
+        public boolean isTaken(int slot) {
+            return get(taken, slot);
+        }
+    }
+
+    private static boolean get(long[] bits, int slot) {
+        return (bits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    private static void set(long[] bits, int slot) {
+        bits[slot >>> 6] |= 1L << slot;
+    }
+
+    private static void clear(long[] bits, int slot) {
+        bits[slot >>> 6] &= ~(1L << slot);
+    }
+}
@@ -0,0 +1,16 @@
+package com.project.EasyBook.repository;
+
+import com.project.EasyBook.entity.BookingSeat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingSeatRepository extends JpaRepository<BookingSeat, BookingSeat.Key> {
+
+    Optional<BookingSeat> findByShowIdAndSeatId(int showId, int seatId);
+
+    List<BookingSeat> findByShowId(int showId);
+}
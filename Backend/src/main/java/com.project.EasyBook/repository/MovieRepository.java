@@ -1,9 +1,31 @@
 package com.project.EasyBook.repository;
 
+import com.project.EasyBook.cache.CacheConfig;
 import com.project.EasyBook.entity.Movie;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface MovieRepository extends JpaRepository<Movie, Integer> {
+
+    @Override
+    @Cacheable(CacheConfig.MOVIES)
+    List<Movie> findAll();
+
+    // Bypasses the movies region, a timed snapshot refresh has to see database edits
+    @Query("SELECT m FROM Movie m")
+    List<Movie> findAllUncached();
+
+    @Query("SELECT m FROM Movie m WHERE m.movieId > :afterId " +
+            "AND (:genre IS NULL OR m.genre = :genre) AND (:lang IS NULL OR m.lang = :lang) " +
+            "AND (:city IS NULL OR EXISTS (SELECT 1 FROM Show s WHERE s.movie = m AND s.theater.city = :city)) " +
+            "ORDER BY m.movieId")
+    List<Movie> findPage(@Param("afterId") int afterId, @Param("genre") String genre, @Param("lang") String lang,
+                         @Param("city") String city, Limit limit);
 }
@@ -1,11 +1,16 @@
 package com.project.EasyBook.repository;
 
+import com.project.EasyBook.dto.SeatCountView;
+import com.project.EasyBook.dto.SeatView;
 import com.project.EasyBook.entity.Seat;
 import com.project.EasyBook.entity.Show;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,5 +19,25 @@ import java.util.Optional;
 public interface SeatRepository extends JpaRepository<Seat, Integer> {
     List<Seat> findByShowShowId(Integer showId);
 
+    @Query("SELECT s.seatId AS seatId, s.seatNumber AS seatNumber, s.isBooked AS booked " +
+            "FROM Seat s WHERE s.show.showId = :showId ORDER BY s.seatId")
+    List<SeatView> findSeatViewsByShowId(@Param("showId") Integer showId);
+
     List<Seat> findBySeatIdIn(List<Integer> seatIds);
+
+    @Query("SELECT s.show.showId AS showId, COUNT(s) AS totalSeats, " +
+            "SUM(CASE WHEN s.isBooked = true THEN 0 ELSE 1 END) AS freeSeats " +
+            "FROM Seat s WHERE s.show.showId IN :showIds GROUP BY s.show.showId")
+    List<SeatCountView> countSeatsByShowIds(@Param("showIds") List<Integer> showIds);
+
+    // Flips only seats that are still free, the caller compares the count with the request
+    @Modifying
+    @Query("UPDATE Seat s SET s.isBooked = true, s.version = s.version + 1 " +
+            "WHERE s.show.showId = :showId AND s.seatId IN :seatIds AND (s.isBooked = false OR s.isBooked IS NULL)")
+    int claimSeats(@Param("showId") Integer showId, @Param("seatIds") List<Integer> seatIds);
+
+    // Own transaction, it runs once a failed claim has rolled back the caller's
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("SELECT s.seatId FROM Seat s WHERE s.show.showId = :showId AND s.seatId IN :seatIds AND s.isBooked = true")
+    List<Integer> findBookedSeatIds(@Param("showId") Integer showId, @Param("seatIds") List<Integer> seatIds);
 }
@@ -1,14 +1,88 @@
 package com.project.EasyBook.repository;
 
+import com.project.EasyBook.cache.CacheConfig;
+import com.project.EasyBook.dto.MovieShowRow;
+import com.project.EasyBook.dto.ShowAvailabilityView;
+import com.project.EasyBook.dto.ShowHeaderView;
 import com.project.EasyBook.entity.Show;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ShowRepository extends JpaRepository<Show, Integer> {
 
+    @Cacheable(CacheConfig.SHOW_HEADERS)
+    @Query("SELECT sh.showId AS showId, m.title AS movieTitle, t.name AS theaterName, t.city AS city, sh.timing AS timing " +
+            "FROM Show sh LEFT JOIN sh.movie m LEFT JOIN sh.theater t WHERE sh.showId = :showId")
+    Optional<ShowHeaderView> findHeaderByShowId(@Param("showId") Integer showId);
+
+    @Cacheable(CacheConfig.CITIES_BY_MOVIE)
+    @Query("SELECT DISTINCT t.city FROM Show s JOIN s.theater t WHERE s.movie.movieId = :movieId AND t.city IS NOT NULL")
+    List<String> findDistinctCitiesByMovieId(@Param("movieId") int movieId);
+
+    @EntityGraph(Show.WITH_MOVIE_AND_THEATER)
+    Optional<Show> findWithMovieAndTheaterByShowId(int showId);
+
+    // One pass over idx_shows_movie_theater, rows arrive grouped by city and theater.
+    // Every show of the movie, expired ones included, so the cached entry does not depend
+    // on when it was loaded; callers drop expired shows themselves
+    @Cacheable(value = CacheConfig.SHOWS_BY_MOVIE, key = "#movieId")
+    @Query("SELECT t.city AS city, t.theaterId AS theaterId, t.name AS theaterName, s.showId AS showId, " +
+            "s.timing AS timing, s.startTime AS startTime, s.availableSeats AS availableSeats " +
+            "FROM Show s JOIN s.theater t WHERE s.movie.movieId = :movieId " +
+            "ORDER BY t.city, t.name, t.theaterId, s.startTime, s.showId")
+    List<MovieShowRow> findShowRowsByMovieId(@Param("movieId") int movieId);
+
+    // Runs in the seat claim's transaction so the count moves together with the seat rows
+    @Modifying
+    @Query("UPDATE Show s SET s.availableSeats = s.availableSeats - :count WHERE s.showId = :showId")
+    int decrementAvailableSeats(@Param("showId") int showId, @Param("count") int count);
+
+    @Query("SELECT s.availableSeats FROM Show s WHERE s.showId = :showId")
+    Optional<Integer> findAvailableSeatsByShowId(@Param("showId") int showId);
+
+    @Query("SELECT s.showId AS showId, s.availableSeats AS availableSeats FROM Show s " +
+            "WHERE s.showId > :afterId ORDER BY s.showId")
+    List<ShowAvailabilityView> findAvailabilityPage(@Param("afterId") int afterId, Limit limit);
+
+    // Only applies if no booking moved the counter since it was read
+    @Transactional
+    @Modifying
+    @Query("UPDATE Show s SET s.availableSeats = :actual WHERE s.showId = :showId AND s.availableSeats = :expected")
+    int correctAvailableSeats(@Param("showId") int showId, @Param("expected") int expected, @Param("actual") int actual);
+
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie m JOIN FETCH s.theater t WHERE s.showId > :afterId " +
+            "AND (s.startTime IS NULL OR s.startTime >= :now) " +
+            "AND (:movieId IS NULL OR m.movieId = :movieId) AND (:theaterId IS NULL OR t.theaterId = :theaterId) " +
+            "AND (:city IS NULL OR t.city = :city) AND (:genre IS NULL OR m.genre = :genre) " +
+            "AND (:lang IS NULL OR m.lang = :lang) ORDER BY s.showId")
+    List<Show> findPage(@Param("afterId") int afterId, @Param("now") LocalDateTime now,
+                        @Param("movieId") Integer movieId, @Param("theaterId") Integer theaterId,
+                        @Param("city") String city, @Param("genre") String genre, @Param("lang") String lang,
+                        Limit limit);
+
+    // Served by idx_shows_movie_start or idx_shows_theater_start when either id is given
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie m JOIN FETCH s.theater t " +
+            "WHERE s.startTime >= :from AND s.startTime < :to " +
+            "AND (:movieId IS NULL OR m.movieId = :movieId) AND (:theaterId IS NULL OR t.theaterId = :theaterId) " +
+            "AND (:city IS NULL OR t.city = :city) ORDER BY s.startTime, s.showId")
+    List<Show> findStartingBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                   @Param("movieId") Integer movieId, @Param("theaterId") Integer theaterId,
+                                   @Param("city") String city, Limit limit);
+
+    @Query("SELECT s FROM Show s JOIN FETCH s.movie JOIN FETCH s.theater " +
+            "WHERE s.startTime IS NULL OR s.startTime >= :now")
+    List<Show> findUpcomingWithMovieAndTheater(@Param("now") LocalDateTime now);
+
 }
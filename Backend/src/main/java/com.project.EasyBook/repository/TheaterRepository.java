@@ -1,9 +1,20 @@
 package com.project.EasyBook.repository;
 
 import com.project.EasyBook.entity.Theater;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface TheaterRepository extends JpaRepository<Theater, Integer> {
+
+    @Query("SELECT t FROM Theater t WHERE t.theaterId > :afterId AND (:city IS NULL OR t.city = :city) " +
+            "AND (:movieId IS NULL OR EXISTS (SELECT 1 FROM Show s WHERE s.theater = t AND s.movie.movieId = :movieId)) " +
+            "ORDER BY t.theaterId")
+    List<Theater> findPage(@Param("afterId") int afterId, @Param("city") String city,
+                           @Param("movieId") Integer movieId, Limit limit);
 }
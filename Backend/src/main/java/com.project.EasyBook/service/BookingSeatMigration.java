@@ -0,0 +1,122 @@
+package com.project.EasyBook.service;
+
+import com.project.EasyBook.cache.CacheEvictor;
+import com.project.EasyBook.catalog.CatalogSnapshotService;
+import com.project.EasyBook.inventory.SeatInventory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Copies the seats of bookings made before booked seats moved to the booking_seat table
+ * out of the old comma-joined bookings.seats_booked column, one row per seat. The same
+ * transaction marks those seats booked and takes them off the show's counter, so the
+ * seat table, the counter and booking_seat agree before anyone can claim the seats.
+ * Legacy rows carry no payment state, every one of them is treated as a booking.
+ * Runs at startup and only picks up bookings without seat rows, so later runs find
+ * nothing to do, and a schema that never had the column is left alone.
+ */
+@Service
+public class BookingSeatMigration {
+
+    private record LegacyBooking(int bookingId, int showId, String seatsBooked) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CacheEvictor cacheEvictor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        List<LegacyBooking> pending;
+        try {
+            pending = jdbcTemplate.query(
+                    "SELECT b.booking_id, b.show_show_id, b.seats_booked FROM bookings b " +
+                    "WHERE b.show_show_id IS NOT NULL AND b.seats_booked IS NOT NULL AND b.seats_booked <> '' " +
+                    "AND NOT EXISTS (SELECT 1 FROM booking_seat bs WHERE bs.booking_id = b.booking_id)",
+                    (rs, row) -> new LegacyBooking(rs.getInt(1), rs.getInt(2), rs.getString(3)));
+        } catch (BadSqlGrammarException e) {
+            // No seats_booked column, the schema was created after the switch
+            return;
+        }
+
+        int migrated = 0;
+        for (LegacyBooking booking : pending) {
+            List<Integer> seatIds = new ArrayList<>();
+            try {
+                for (String seatId : booking.seatsBooked().split(",")) {
+                    if (!seatId.isBlank()) {
+                        seatIds.add(Integer.parseInt(seatId.trim()));
+                    }
+                }
+            } catch (NumberFormatException e) {
+                System.err.println("Booking " + booking.bookingId() + " not migrated, unreadable seats: " + booking.seatsBooked());
+                continue;
+            }
+            if (seatIds.isEmpty()) {
+                continue;
+            }
+
+            // One booking per transaction, a seat claimed twice only holds back its own booking
+            try {
+                transactionTemplate.executeWithoutResult(status -> copySeats(booking, seatIds));
+                migrated++;
+            } catch (DataIntegrityViolationException e) {
+                System.err.println("Booking " + booking.bookingId() + " not migrated, a seat already belongs to another booking: "
+                        + booking.seatsBooked());
+                continue;
+            }
+            seatInventory.resync(booking.showId(), seatIds);
+        }
+        if (migrated > 0) {
+            cacheEvictor.evictShowListings();
+            System.out.println("Copied the seats of " + migrated + " booking(s) into booking_seat");
+        }
+    }
+
+    private void copySeats(LegacyBooking booking, List<Integer> seatIds) {
+        List<Object[]> rows = new ArrayList<>(seatIds.size());
+        for (Integer seatId : seatIds) {
+            rows.add(new Object[]{booking.showId(), seatId, booking.bookingId()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO booking_seat (show_id, seat_id, booking_id) VALUES (?, ?, ?)", rows);
+
+        List<Object> args = new ArrayList<>(seatIds.size() + 1);
+        args.add(booking.showId());
+        args.addAll(seatIds);
+        String placeholders = String.join(", ", Collections.nCopies(seatIds.size(), "?"));
+        int flipped = jdbcTemplate.update("UPDATE seat SET is_booked = true, version = version + 1 " +
+                "WHERE show_id = ? AND seat_id IN (" + placeholders + ") AND (is_booked = false OR is_booked IS NULL)",
+                args.toArray());
+        if (flipped == 0) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE shows SET available_seats = available_seats - ? WHERE show_id = ?",
+                flipped, booking.showId());
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT available_seats FROM shows WHERE show_id = ?", Integer.class, booking.showId());
+        if (count != null) {
+            catalogSnapshotService.recordAvailableSeats(booking.showId(), count);
+        }
+    }
+}
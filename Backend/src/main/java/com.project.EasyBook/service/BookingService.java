@@ -1,21 +1,30 @@
 package com.project.EasyBook.service;
 
+import com.project.EasyBook.cache.CacheEvictor;
+import com.project.EasyBook.catalog.CatalogSnapshotService;
 import com.project.EasyBook.entity.Booking;
 import com.project.EasyBook.entity.Seat;
 import com.project.EasyBook.entity.Show;
 import com.project.EasyBook.entity.User;
+import com.project.EasyBook.inventory.SeatHold;
+import com.project.EasyBook.inventory.SeatInventory;
+import com.project.EasyBook.inventory.ShowSeatMap;
 import com.project.EasyBook.repository.BookingRepository;
 import com.project.EasyBook.repository.SeatRepository;
 import com.project.EasyBook.repository.ShowRepository;
 import com.project.EasyBook.repository.UserRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class BookingService {
@@ -26,27 +35,114 @@ public class BookingService {
     @Autowired
     private SeatRepository seatRepository;
 
-    public Booking bookSeats(Integer userId, Integer showId, List<Integer> seats, Double totalPrice) {
-        List<Seat> toBook = seatRepository.findByShowShowId(showId).stream()
-                .filter(s -> seats.contains(s.getSeatNumber()) && !s.isBooked())
-                .collect(Collectors.toList());
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private SeatInventory seatInventory;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CacheEvictor cacheEvictor;
+
+    @Value("${easybook.booking.claim-mode:conditional}")
+    private String claimMode;
+
+    @Transactional
+    public Booking bookSeats(Integer userId, Integer showId, List<Integer> seats, Double totalPrice, SeatHold hold) {
+        ShowSeatMap seatMap = seatInventory.forShow(showId);
+        boolean claimed;
+        if (hold != null && hold.covers(showId, seats)) {
+            claimed = seatMap.claimHeld(seats);
+        } else {
+            if (hold != null) {
+                seatInventory.releaseHold(hold.getShowId(), hold.getSeatIds());
+            }
+            claimed = seatMap.claim(seats);
+        }
+        if (!claimed) {
+            throw new IllegalStateException("Some seats are no longer available");
+        }
+        releaseOnRollback(seatMap, seats);
+
+        if (!claimInDatabase(showId, seats)) {
+            // The in-memory map disagreed with the seat table, correct just these seats
+            resyncOnRollback(showId, seats);
+            throw new IllegalStateException("Some seats are no longer available");
+        }
+        showRepository.decrementAvailableSeats(showId, seats.size());
+        showRepository.findAvailableSeatsByShowId(showId)
+                .ifPresent(count -> catalogSnapshotService.recordAvailableSeats(showId, count));
 
-        toBook.forEach(s -> s.setBooked(true));
-        seatRepository.saveAll(toBook);
+        catalogSnapshotService.current().show(showId)
+                .filter(show -> show.getMovie() != null)
+                .ifPresent(show -> cacheEvictor.evictBooking(show.getMovie().getMovieId()));
 
         Booking booking = new Booking();
         booking.setUser(new User(userId));
         booking.setShow(new Show(showId));
-        booking.setSeatsBooked(String.join((CharSequence) ",", (CharSequence) seats));
+        seats.forEach(seatId -> booking.addSeat(showId, seatId));
         booking.setTotalPrice(BigDecimal.valueOf(totalPrice));
-        return bookingRepository.save(booking);
+        try {
+            // Flushed here so a seat row another booking already owns fails inside this method
+            return bookingRepository.saveAndFlush(booking);
+        } catch (DataIntegrityViolationException e) {
+            resyncOnRollback(showId, seats);
+            throw new IllegalStateException("Some seats are no longer available");
+        }
     }
 
-    public Optional<Booking> getBookingById(Integer bookingId) {
-        return bookingRepository.findById(bookingId);
+    private boolean claimInDatabase(Integer showId, List<Integer> seats) {
+        if (!"optimistic".equalsIgnoreCase(claimMode)) {
+            return seatRepository.claimSeats(showId, seats) == seats.size();
+        }
+
+        List<Seat> rows = seatRepository.findBySeatIdIn(seats);
+        if (rows.size() != seats.size() || rows.stream().anyMatch(
+                s -> s.isBooked() || s.getShow() == null || s.getShow().getShowId() != showId)) {
+            return false;
+        }
+        rows.forEach(s -> s.setBooked(true));
+        try {
+            seatRepository.saveAllAndFlush(rows);
+            return true;
+        } catch (OptimisticLockingFailureException e) {
+            return false;
+        }
+    }
+
+    private void releaseOnRollback(ShowSeatMap seatMap, List<Integer> seats) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    seatMap.release(seats);
+                }
+            }
+        });
     }
 
-    public Booking saveBooking(Booking booking) {
-        return bookingRepository.save(booking);
+    // Registered after releaseOnRollback, so it runs once the claimed bits were released
+    private void resyncOnRollback(int showId, List<Integer> seats) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    seatInventory.resync(showId, seats);
+                }
+            }
+        });
+    }
+
+    public Optional<Booking> getBookingById(Integer bookingId) {
+        return bookingRepository.findById(bookingId);
     }
 }
@@ -0,0 +1,246 @@
+package com.project.EasyBook.service;
+
+import com.project.EasyBook.util.CircuitBreaker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Calls the Gemini generateContent endpoint over the shared pooled client. Failures
+ * that point at a degraded upstream (timeouts, I/O errors, 5xx, 429) trip a circuit
+ * breaker, while it is open calls fail immediately instead of waiting on the network.
+ */
+@Service
+public class GeminiClient {
+
+    private static final long STREAM_WATCH_MILLIS = 100;
+
+    @Value("${gemini.api.key:}")
+    private String apiKey;
+
+    @Value("${easybook.gemini.url:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:generateContent}")
+    private String url;
+
+    @Value("${easybook.gemini.stream-url:https://generativelanguage.googleapis.com/v1beta/models/gemini-2.0-flash:streamGenerateContent?alt=sse}")
+    private String streamUrl;
+
+    @Value("${easybook.gemini.read-timeout:10s}")
+    private Duration readTimeout;
+
+    @Value("${easybook.gemini.stream-timeout:60s}")
+    private Duration streamTimeout;
+
+    @Value("${easybook.gemini.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${easybook.gemini.breaker.open-for:30s}")
+    private Duration openFor;
+
+    @Autowired
+    private RestTemplate geminiRestTemplate;
+
+    @Autowired
+    private HttpClient httpClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private CircuitBreaker breaker;
+    private ScheduledExecutorService streamWatch;
+
+    @PostConstruct
+    public void init() {
+        streamWatch = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("gemini-stream-watch").daemon(true).factory());
+        breaker = new CircuitBreaker(failureThreshold, openFor);
+        Gauge.builder("easybook.gemini.circuit.open", breaker,
+                        b -> b.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                .description("1 while calls to Gemini are short-circuited")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        streamWatch.shutdownNow();
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    /**
+     * Returns the text of the first candidate. Throws when the call fails or the
+     * circuit is open.
+     */
+    public String generateContent(String prompt) {
+        if (!breaker.tryAcquire()) {
+            throw new IllegalStateException("Gemini circuit is open");
+        }
+
+        String body;
+        try {
+            body = geminiRestTemplate.postForObject(url, request(prompt), String.class);
+        } catch (HttpClientErrorException e) {
+            // The upstream answered, only a rate limit counts against it
+            if (e.getStatusCode().value() == 429) {
+                breaker.recordFailure();
+            } else {
+                breaker.recordSuccess();
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            breaker.recordFailure();
+            throw e;
+        }
+        breaker.recordSuccess();
+
+        String text = extractText(body);
+        if (text.isEmpty()) {
+            throw new IllegalStateException("Gemini response has no text");
+        }
+        return text;
+    }
+
+    /**
+     * Streams the answer from the SSE variant of the endpoint, handing every text chunk
+     * to {@code onText} as soon as it arrives. Reading stops, and the upstream connection
+     * is dropped, once {@code cancelled} turns true.
+     */
+    public void streamContent(String prompt, Consumer<String> onText, BooleanSupplier cancelled)
+            throws IOException, InterruptedException {
+        if (!breaker.tryAcquire()) {
+            throw new IllegalStateException("Gemini circuit is open");
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(streamUrl))
+                .timeout(readTimeout)
+                .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                .header("x-goog-api-key", apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(payload(prompt)))
+                .build();
+
+        // The request timeout only covers the response headers. The watch below bounds a
+        // stream that stalls halfway and drops it once the caller cancels, by closing the
+        // body, which also wakes a read blocked on the stalled upstream
+        long deadline = System.nanoTime() + streamTimeout.toNanos();
+        boolean connected = false;
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            InputStream body = response.body();
+            AtomicReference<StreamStop> stop = new AtomicReference<>();
+            ScheduledFuture<?> watch = streamWatch.scheduleWithFixedDelay(() -> {
+                StreamStop reason = cancelled.getAsBoolean() ? StreamStop.CANCELLED
+                        : System.nanoTime() - deadline >= 0 ? StreamStop.TIMED_OUT : null;
+                if (reason != null && stop.compareAndSet(null, reason)) {
+                    try {
+                        body.close();
+                    } catch (IOException ignored) {
+                    }
+                }
+            }, STREAM_WATCH_MILLIS, STREAM_WATCH_MILLIS, TimeUnit.MILLISECONDS);
+
+            try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+                int status = response.statusCode();
+                if (status != 200) {
+                    if (status == 429 || status >= 500) {
+                        breaker.recordFailure();
+                    } else {
+                        breaker.recordSuccess();
+                    }
+                    connected = true;
+                    throw new IOException("Gemini stream returned HTTP " + status);
+                }
+                breaker.recordSuccess();
+                connected = true;
+
+                String line;
+                while (!cancelled.getAsBoolean() && (line = lines.readLine()) != null) {
+                    if (line.startsWith("data:")) {
+                        String text = extractText(line.substring(5).trim());
+                        if (!text.isEmpty()) {
+                            onText.accept(text);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (stop.get() == StreamStop.CANCELLED) {
+                    return;
+                }
+                if (stop.get() == StreamStop.TIMED_OUT) {
+                    throw new HttpTimeoutException("Gemini stream did not finish within " + streamTimeout);
+                }
+                throw e;
+            } finally {
+                watch.cancel(false);
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (!connected) {
+                breaker.recordFailure();
+            }
+            throw e;
+        }
+    }
+
+    private enum StreamStop {
+        CANCELLED, TIMED_OUT
+    }
+
+    private HttpEntity<String> request(String prompt) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("x-goog-api-key", apiKey);
+        return new HttpEntity<>(payload(prompt), headers);
+    }
+
+    private static String payload(String prompt) {
+        return new JSONObject().put("contents", new JSONArray()
+                .put(new JSONObject().put("parts", new JSONArray()
+                        .put(new JSONObject().put("text", prompt))))).toString();
+    }
+
+    // Stream chunks can come without content, e.g. the last one carrying only the finish reason
+    static String extractText(String body) {
+        JSONArray candidates = new JSONObject(body).optJSONArray("candidates");
+        JSONObject content = candidates == null || candidates.isEmpty()
+                ? null : candidates.getJSONObject(0).optJSONObject("content");
+        JSONArray parts = content == null ? null : content.optJSONArray("parts");
+        if (parts == null) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < parts.length(); i++) {
+            text.append(parts.getJSONObject(i).optString("text"));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,137 @@
+package com.project.EasyBook.service;
+
+import com.project.EasyBook.cache.CacheEvictor;
+import com.project.EasyBook.catalog.CatalogSnapshotService;
+import com.project.EasyBook.dto.SeatCountView;
+import com.project.EasyBook.dto.ShowAvailabilityView;
+import com.project.EasyBook.repository.SeatRepository;
+import com.project.EasyBook.repository.ShowRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recomputes {@code shows.available_seats} from the seat table in batches of shows and
+ * corrects counters that drifted, e.g. after seats were edited by hand. Shows without
+ * seat rows are left alone, their counter is the only availability figure there is.
+ */
+@Service
+public class SeatCountReconciler {
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CacheEvictor cacheEvictor;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${easybook.seat-count.reconcile-interval:15m}")
+    private Duration interval;
+
+    @Value("${easybook.seat-count.reconcile-batch-size:500}")
+    private int batchSize;
+
+    private ScheduledExecutorService scheduler;
+    private Counter driftedShows;
+    private Counter driftedSeats;
+
+    @PostConstruct
+    public void start() {
+        driftedShows = Counter.builder("easybook.seat-count.drift.shows")
+                .description("Shows whose available seat counter was corrected")
+                .register(meterRegistry);
+        driftedSeats = Counter.builder("easybook.seat-count.drift.seats")
+                .description("Total seats by which corrected counters were off")
+                .register(meterRegistry);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("seat-count-reconcile").daemon(true).factory());
+        long millis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::reconcileQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Walks all shows once and returns how many counters were corrected.
+     */
+    public int reconcile() {
+        int corrected = 0;
+        int afterId = 0;
+        while (true) {
+            List<ShowAvailabilityView> shows = showRepository.findAvailabilityPage(afterId, Limit.of(batchSize));
+            if (shows.isEmpty()) {
+                break;
+            }
+            afterId = shows.get(shows.size() - 1).getShowId();
+
+            // Counters are read before the seats, a booking in between fails the guarded update below
+            Map<Integer, SeatCountView> counts = seatRepository
+                    .countSeatsByShowIds(shows.stream().map(ShowAvailabilityView::getShowId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(SeatCountView::getShowId, Function.identity()));
+
+            for (ShowAvailabilityView show : shows) {
+                SeatCountView count = counts.get(show.getShowId());
+                if (count == null) {
+                    continue;
+                }
+                int expected = show.getAvailableSeats() == null ? 0 : show.getAvailableSeats();
+                int actual = count.getFreeSeats().intValue();
+                if (expected != actual
+                        && showRepository.correctAvailableSeats(show.getShowId(), expected, actual) == 1) {
+                    System.out.println("Seat count drift on show " + show.getShowId()
+                            + ": counter " + expected + ", seat table " + actual);
+                    driftedShows.increment();
+                    driftedSeats.increment(Math.abs(expected - actual));
+                    catalogSnapshotService.recordAvailableSeats(show.getShowId(), actual);
+                    corrected++;
+                }
+            }
+            if (shows.size() < batchSize) {
+                break;
+            }
+        }
+
+        if (corrected > 0) {
+            cacheEvictor.evictShowListings();
+        }
+        return corrected;
+    }
+
+    private void reconcileQuietly() {
+        try {
+            int corrected = reconcile();
+            if (corrected > 0) {
+                System.out.println("Seat count reconciliation corrected " + corrected + " show(s)");
+            }
+        } catch (Exception e) {
+            System.err.println("Error reconciling seat counts: " + e.getMessage());
+        }
+    }
+}
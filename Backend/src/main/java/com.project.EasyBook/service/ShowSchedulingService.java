@@ -0,0 +1,169 @@
+package com.project.EasyBook.service;
+
+import com.project.EasyBook.catalog.CatalogChangedEvent;
+import com.project.EasyBook.dto.ShowScheduleRequest;
+import com.project.EasyBook.repository.MovieRepository;
+import com.project.EasyBook.repository.TheaterRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Creates shows together with their seat rows through plain JDBC batches. Seat ids are
+ * IDENTITY generated, which keeps Hibernate from batching them, so the rows bypass the
+ * persistence context entirely; with rewriteBatchedStatements the MySQL driver turns
+ * each batch into multi-row INSERTs.
+ */
+@Service
+public class ShowSchedulingService {
+
+    private static final int MAX_SHOWS = 500;
+    private static final int MAX_SEATS_PER_SHOW = 2000;
+    private static final DateTimeFormatter TIMING_FORMAT = DateTimeFormatter.ofPattern("hh:mm a", Locale.ENGLISH);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${easybook.schedule.batch-size:1000}")
+    private int batchSize;
+
+    @Transactional
+    public List<Integer> schedule(ShowScheduleRequest request) {
+        if (!movieRepository.existsById(request.getMovieId())) {
+            throw new IllegalArgumentException("Movie not found");
+        }
+        if (!theaterRepository.existsById(request.getTheaterId())) {
+            throw new IllegalArgumentException("Theater not found");
+        }
+        List<LocalDateTime> startTimes = startTimes(request);
+        List<String> seatNumbers = seatNumbers(request.getLayout());
+
+        List<Integer> showIds = insertShows(request.getMovieId(), request.getTheaterId(), startTimes, seatNumbers.size());
+        insertSeats(showIds, seatNumbers);
+
+        eventPublisher.publishEvent(new CatalogChangedEvent("scheduled " + showIds.size() + " show(s)"));
+        return showIds;
+    }
+
+    private List<Integer> insertShows(int movieId, int theaterId, List<LocalDateTime> startTimes, int seatCount) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(
+                        "INSERT INTO shows (movie_id, theater_id, timing, start_time, available_seats) VALUES (?, ?, ?, ?, ?)",
+                        new String[]{"show_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        LocalDateTime start = startTimes.get(i);
+                        ps.setInt(1, movieId);
+                        ps.setInt(2, theaterId);
+                        ps.setString(3, start.format(TIMING_FORMAT));
+                        ps.setTimestamp(4, Timestamp.valueOf(start));
+                        ps.setInt(5, seatCount);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return startTimes.size();
+                    }
+                },
+                keys);
+
+        List<Integer> showIds = new ArrayList<>(startTimes.size());
+        for (Map<String, Object> row : keys.getKeyList()) {
+            showIds.add(((Number) row.values().iterator().next()).intValue());
+        }
+        if (showIds.size() != startTimes.size()) {
+            throw new IllegalStateException("Expected " + startTimes.size() + " show ids, got " + showIds.size());
+        }
+        return showIds;
+    }
+
+    private void insertSeats(List<Integer> showIds, List<String> seatNumbers) {
+        List<Object[]> rows = new ArrayList<>(showIds.size() * seatNumbers.size());
+        for (Integer showId : showIds) {
+            for (String seatNumber : seatNumbers) {
+                rows.add(new Object[]{showId, seatNumber});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO seat (show_id, seat_number, is_booked, version) VALUES (?, ?, false, 0)",
+                rows, batchSize,
+                (ps, row) -> {
+                    ps.setInt(1, (Integer) row[0]);
+                    ps.setString(2, (String) row[1]);
+                });
+    }
+
+    private static List<LocalDateTime> startTimes(ShowScheduleRequest request) {
+        List<LocalDateTime> startTimes = new ArrayList<>();
+        if (request.getStartTimes() != null) {
+            startTimes.addAll(request.getStartTimes());
+        }
+        if (request.getFromDate() != null && request.getDailyTimes() != null) {
+            int days = request.getDays() == null ? 7 : request.getDays();
+            for (int day = 0; day < days; day++) {
+                LocalDate date = request.getFromDate().plusDays(day);
+                for (LocalTime time : request.getDailyTimes()) {
+                    startTimes.add(date.atTime(time));
+                }
+            }
+        }
+        if (startTimes.isEmpty()) {
+            throw new IllegalArgumentException("No start times given");
+        }
+        if (startTimes.size() > MAX_SHOWS) {
+            throw new IllegalArgumentException("At most " + MAX_SHOWS + " shows per request");
+        }
+        if (startTimes.stream().anyMatch(start -> start == null || start.isBefore(LocalDateTime.now()))) {
+            throw new IllegalArgumentException("Start times must be in the future");
+        }
+        return startTimes;
+    }
+
+    private static List<String> seatNumbers(List<ShowScheduleRequest.SeatRowSpec> layout) {
+        if (layout == null || layout.isEmpty()) {
+            throw new IllegalArgumentException("Seat layout is required");
+        }
+        List<String> seatNumbers = new ArrayList<>();
+        for (ShowScheduleRequest.SeatRowSpec row : layout) {
+            if (row.getRow() == null || row.getRow().isBlank() || row.getSeats() < 1) {
+                throw new IllegalArgumentException("Every layout row needs a label and at least one seat");
+            }
+            for (int number = 1; number <= row.getSeats(); number++) {
+                seatNumbers.add(row.getRow().trim() + number);
+            }
+        }
+        if (seatNumbers.size() > MAX_SEATS_PER_SHOW) {
+            throw new IllegalArgumentException("At most " + MAX_SEATS_PER_SHOW + " seats per show");
+        }
+        return seatNumbers;
+    }
+}
@@ -0,0 +1,140 @@
+package com.project.EasyBook;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stands in for the Gemini API on a loopback port. Tests queue one response per
+ * expected request; a request with nothing queued gets a 500. The stub counts the
+ * requests it received and the responses a client hung up on halfway.
+ */
+public class GeminiStub implements AutoCloseable {
+
+    @FunctionalInterface
+    public interface Response {
+        void write(HttpExchange exchange) throws IOException, InterruptedException;
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final BlockingQueue<Response> responses = new LinkedBlockingQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger disconnects = new AtomicInteger();
+
+    public GeminiStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                Response response = responses.poll();
+                (response != null ? response : status(500)).write(exchange);
+            } catch (IOException e) {
+                disconnects.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+    }
+
+    public String url(String path) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+    }
+
+    public void enqueue(Response... queued) {
+        responses.addAll(List.of(queued));
+    }
+
+    public int requests() {
+        return requests.get();
+    }
+
+    public int disconnects() {
+        return disconnects.get();
+    }
+
+    public void reset() {
+        responses.clear();
+        requests.set(0);
+        disconnects.set(0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static Response answer(String text) {
+        return exchange -> {
+            byte[] body = candidate(text).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        };
+    }
+
+    public static Response status(int code) {
+        return exchange -> {
+            byte[] body = new JSONObject().put("error", new JSONObject().put("code", code)).toString()
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(code, body.length);
+            exchange.getResponseBody().write(body);
+        };
+    }
+
+    public static Response delayed(Duration delay, Response response) {
+        return exchange -> {
+            Thread.sleep(delay.toMillis());
+            response.write(exchange);
+        };
+    }
+
+    /**
+     * Server-sent events, one {@code data:} line per chunk with {@code gap} between them,
+     * then the connection is held open for {@code stallAfter} before the stream ends.
+     */
+    public static Response events(Duration gap, Duration stallAfter, String... chunks) {
+        return exchange -> {
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            for (int i = 0; i < chunks.length; i++) {
+                if (i > 0) {
+                    Thread.sleep(gap.toMillis());
+                }
+                out.write(("data: " + candidate(chunks[i]) + "\n\n").getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            }
+            Thread.sleep(stallAfter.toMillis());
+        };
+    }
+
+    public static Response events(Duration gap, String... chunks) {
+        return events(gap, Duration.ZERO, chunks);
+    }
+
+    private static String candidate(String text) {
+        return new JSONObject().put("candidates", new JSONArray()
+                .put(new JSONObject().put("content", new JSONObject().put("parts", new JSONArray()
+                        .put(new JSONObject().put("text", text)))))).toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.project.EasyBook;
+
+import com.project.EasyBook.cache.CacheEvictor;
+import com.project.EasyBook.catalog.CatalogSnapshotService;
+import com.project.EasyBook.entity.Movie;
+import com.project.EasyBook.entity.Seat;
+import com.project.EasyBook.entity.Show;
+import com.project.EasyBook.entity.Theater;
+import com.project.EasyBook.repository.MovieRepository;
+import com.project.EasyBook.repository.SeatRepository;
+import com.project.EasyBook.repository.ShowRepository;
+import com.project.EasyBook.repository.TheaterRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the SQL statements each read endpoint issues on a cold cache, using Hibernate
+ * statistics. A lazy association touched outside its fetch plan either adds statements
+ * here or fails the request, open-in-view is off.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:easybook-test.properties")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SqlStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private TheaterRepository theaterRepository;
+
+    @Autowired
+    private ShowRepository showRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private CacheEvictor cacheEvictor;
+
+    private Statistics statistics;
+    private int movieId;
+    private int theaterId;
+    private int seatedShowId;
+
+    @BeforeAll
+    void seed() {
+        List<Movie> movies = movieRepository.saveAll(List.of(
+                new Movie(0, "Interstellar", "Sci-Fi", "English", 169),
+                new Movie(0, "Inception", "Thriller", "English", 148)));
+        List<Theater> theaters = theaterRepository.saveAll(List.of(
+                new Theater(0, "PVR Phoenix", "Mumbai"),
+                new Theater(0, "INOX Amanora", "Pune")));
+
+        List<Show> shows = new ArrayList<>();
+        LocalDateTime tomorrow = LocalDateTime.now().plusDays(1).withNano(0);
+        for (Movie movie : movies) {
+            for (Theater theater : theaters) {
+                for (int day = 0; day < 2; day++) {
+                    Show show = new Show(0, movie, theater, "10:00 AM", 12);
+                    show.setStartTime(tomorrow.plusDays(day));
+                    shows.add(show);
+                }
+            }
+        }
+        shows = showRepository.saveAll(shows);
+
+        Show seated = shows.get(0);
+        List<Seat> seats = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            Seat seat = new Seat();
+            seat.setShow(seated);
+            seat.setSeatNumber("A" + i);
+            seats.add(seat);
+        }
+        seatRepository.saveAll(seats);
+
+        movieId = movies.get(0).getMovieId();
+        theaterId = theaters.get(0).getTheaterId();
+        seatedShowId = seated.getShowId();
+        catalogSnapshotService.refresh();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @BeforeEach
+    void coldCaches() {
+        cacheEvictor.evictCatalog();
+    }
+
+    @Test
+    void snapshotEndpointsRunNoStatements() throws Exception {
+        assertStatements(0,
+                "/api/movies",
+                "/api/cities/" + movieId,
+                "/api/theaters/" + movieId + "/Mumbai",
+                "/api/shows/" + movieId + "/" + theaterId,
+                "/api/chat/movies-info",
+                "/api/chat/search-movies/interstelar",
+                "/api/chat/movie/" + movieId + "/upcoming?hours=72");
+    }
+
+    @Test
+    void seatMapReadsHeaderAndSeatsOnce() throws Exception {
+        assertStatements(2, "/api/seats/" + seatedShowId, "/api/seats/" + seatedShowId);
+    }
+
+    @Test
+    void pagedListsUseOneStatementPerPage() throws Exception {
+        assertStatements(1, "/api/movies?limit=1");
+        assertStatements(1, "/api/theaters?city=Mumbai&limit=5");
+        assertStatements(1, "/api/shows?movieId=" + movieId + "&limit=5");
+    }
+
+    @Test
+    void upcomingShowsFetchMovieAndTheaterInOneStatement() throws Exception {
+        assertStatements(1, "/api/shows/upcoming?movieId=" + movieId + "&hours=72");
+    }
+
+    @Test
+    void movieDetailsGroupShowRowsFromOneStatement() throws Exception {
+        assertStatements(1, "/api/chat/movie/" + movieId + "/details");
+    }
+
+    private void assertStatements(long expected, String... urls) throws Exception {
+        statistics.clear();
+        for (String url : urls) {
+            mockMvc.perform(get(url)).andExpect(status().isOk());
+        }
+        assertEquals(expected, statistics.getPrepareStatementCount(), "SQL statements for " + String.join(", ", urls));
+    }
+}
@@ -0,0 +1,213 @@
+package com.project.EasyBook.controller;
+
+import com.project.EasyBook.GeminiStub;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.project.EasyBook.GeminiStub.events;
+import static com.project.EasyBook.GeminiStub.status;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Chats over a real WebSocket with Gemini replaced by a local stub: the fallback reply,
+ * streamed answers, stalled and cancelled streams, and sessions sharing one stream.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@TestPropertySource(locations = "classpath:easybook-test.properties", properties = {
+        "gemini.api.key=test-key",
+        "easybook.gemini.read-timeout=1s",
+        "easybook.gemini.stream-timeout=2s",
+        "easybook.gemini.breaker.failure-threshold=100"})
+class EasyBookChatHandlerTest {
+
+    private static final String FALLBACK_REPLY = "I'm here to help you with movie bookings! Ask me about available movies, theaters, show timings, or how to book tickets.";
+
+    private static final GeminiStub stub = newStub();
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void geminiUrls(DynamicPropertyRegistry registry) {
+        registry.add("easybook.gemini.url", () -> stub.url("/generate"));
+        registry.add("easybook.gemini.stream-url", () -> stub.url("/stream"));
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @BeforeEach
+    void resetStub() {
+        stub.reset();
+    }
+
+    @Test
+    void failedGeminiCallRepliesWithTheFallback() throws Exception {
+        stub.enqueue(status(503));
+
+        try (Chat chat = connect(false)) {
+            chat.send("what is the meaning of life");
+            assertEquals(FALLBACK_REPLY, chat.next());
+        }
+        assertEquals(1, stub.requests());
+    }
+
+    @Test
+    void streamedChunksGoOutAsDeltaFrames() throws Exception {
+        stub.enqueue(events(Duration.ofMillis(150), "The sky", " scatters", " blue light."));
+
+        try (Chat chat = connect(true)) {
+            chat.send("why is the sky blue");
+            assertEquals(List.of("The sky", " scatters", " blue light."), chat.deltasUntil("done"));
+        }
+    }
+
+    @Test
+    void stalledStreamIsCutShortAfterTheTimeout() throws Exception {
+        stub.enqueue(events(Duration.ZERO, Duration.ofSeconds(10), "Mount Everest is"));
+
+        try (Chat chat = connect(true)) {
+            chat.send("how tall is everest");
+            assertEquals(List.of("Mount Everest is"), chat.deltasUntil("error"));
+        }
+    }
+
+    @Test
+    void closingTheSocketDropsTheUpstreamStream() throws Exception {
+        String[] chunks = new String[50];
+        Arrays.fill(chunks, "word ");
+        stub.enqueue(events(Duration.ofMillis(100), chunks));
+
+        try (Chat chat = connect(true)) {
+            chat.send("recite a very long poem");
+            assertEquals("delta", type(chat.next()));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(1500);
+        while (stub.disconnects() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(1, stub.disconnects());
+    }
+
+    @Test
+    void sessionsAskingAtOnceShareOneStream() throws Exception {
+        stub.enqueue(events(Duration.ofMillis(300), "Leonardo", " da", " Vinci"));
+
+        try (Chat first = connect(true); Chat second = connect(true)) {
+            first.send("who painted the mona lisa");
+            assertEquals("delta", type(first.next()));
+            second.send("Who painted the Mona Lisa?");
+            first.close();
+
+            // The late session gets the text so far, then the rest, even with the first one gone
+            assertEquals("Leonardo da Vinci", String.join("", second.deltasUntil("done")));
+        }
+        assertEquals(1, stub.requests());
+
+        try (Chat third = connect(true)) {
+            third.send("who painted the mona lisa");
+            assertEquals(List.of("Leonardo da Vinci"), third.deltasUntil("done"));
+        }
+        assertEquals(1, stub.requests());
+    }
+
+    private static String type(String frame) {
+        return frame == null ? null : new JSONObject(frame).getString("type");
+    }
+
+    private Chat connect(boolean streaming) throws Exception {
+        return new Chat(URI.create("ws://localhost:" + port + "/api/chat" + (streaming ? "?stream=true" : "")));
+    }
+
+    private static GeminiStub newStub() {
+        try {
+            return new GeminiStub();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Client end of a chat session that queues every text frame it receives.
+     */
+    static class Chat implements AutoCloseable {
+
+        private final HttpClient client = HttpClient.newHttpClient();
+        private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+        private final WebSocket socket;
+
+        Chat(URI uri) throws Exception {
+            socket = client.newWebSocketBuilder()
+                    .header("Origin", "http://localhost:3000")
+                    .buildAsync(uri, new WebSocket.Listener() {
+                        private final StringBuilder partial = new StringBuilder();
+
+                        @Override
+                        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+                            partial.append(data);
+                            if (last) {
+                                frames.add(partial.toString());
+                                partial.setLength(0);
+                            }
+                            webSocket.request(1);
+                            return null;
+                        }
+                    })
+                    .get(5, TimeUnit.SECONDS);
+        }
+
+        void send(String text) {
+            socket.sendText(text, true).join();
+        }
+
+        // Waits for the next frame, null if none arrives within five seconds
+        String next() throws InterruptedException {
+            return frames.poll(5, TimeUnit.SECONDS);
+        }
+
+        // Texts of the delta frames received before the first frame of the given type
+        List<String> deltasUntil(String type) throws InterruptedException {
+            List<String> deltas = new ArrayList<>();
+            while (true) {
+                String frame = next();
+                assertNotNull(frame, "no '" + type + "' frame after " + deltas);
+                JSONObject json = new JSONObject(frame);
+                if (json.getString("type").equals(type)) {
+                    return deltas;
+                }
+                assertEquals("delta", json.getString("type"), frame);
+                deltas.add(json.getString("text"));
+            }
+        }
+
+        @Override
+        public void close() {
+            socket.abort();
+            client.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.project.EasyBook.service;
+
+import com.project.EasyBook.GeminiStub;
+import com.project.EasyBook.config.HttpClientConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static com.project.EasyBook.GeminiStub.answer;
+import static com.project.EasyBook.GeminiStub.delayed;
+import static com.project.EasyBook.GeminiStub.status;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Drives {@link GeminiClient} against a local stub: read timeouts, which failures open
+ * the circuit breaker, and the single trial call once it has been open long enough.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class GeminiClientTest {
+
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration OPEN_FOR = Duration.ofMillis(300);
+
+    private GeminiStub stub;
+    private HttpClient httpClient;
+    private MeterRegistry meterRegistry;
+    private GeminiClient client;
+
+    @BeforeAll
+    void startStub() throws Exception {
+        stub = new GeminiStub();
+        httpClient = new HttpClientConfig().httpClient(Duration.ofSeconds(1));
+    }
+
+    @AfterAll
+    void stopStub() {
+        httpClient.close();
+        stub.close();
+    }
+
+    // A fresh client per test, so every test starts with a closed breaker
+    @BeforeEach
+    void newClient() {
+        stub.reset();
+        meterRegistry = new SimpleMeterRegistry();
+        client = new GeminiClient();
+        ReflectionTestUtils.setField(client, "apiKey", "test-key");
+        ReflectionTestUtils.setField(client, "url", stub.url("/generate"));
+        ReflectionTestUtils.setField(client, "streamUrl", stub.url("/stream"));
+        ReflectionTestUtils.setField(client, "readTimeout", READ_TIMEOUT);
+        ReflectionTestUtils.setField(client, "streamTimeout", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(client, "failureThreshold", 2);
+        ReflectionTestUtils.setField(client, "openFor", OPEN_FOR);
+        ReflectionTestUtils.setField(client, "geminiRestTemplate",
+                new HttpClientConfig().geminiRestTemplate(httpClient, READ_TIMEOUT));
+        ReflectionTestUtils.setField(client, "httpClient", httpClient);
+        ReflectionTestUtils.setField(client, "meterRegistry", meterRegistry);
+        client.init();
+    }
+
+    @Test
+    void returnsTheFirstCandidateText() {
+        stub.enqueue(answer("Interstellar is showing tonight"));
+
+        assertEquals("Interstellar is showing tonight", client.generateContent("what is on"));
+        assertEquals(0, circuitOpen());
+    }
+
+    @Test
+    void slowAnswersTimeOutAndCountAsFailures() {
+        stub.enqueue(delayed(READ_TIMEOUT.multipliedBy(3), answer("too late")),
+                delayed(READ_TIMEOUT.multipliedBy(3), answer("too late")));
+
+        // Depending on where the timeout lands the JDK request factory reports it as a
+        // ResourceAccessException or a bare CancellationException
+        assertThrows(RuntimeException.class, () -> client.generateContent("first"));
+        assertEquals(0, circuitOpen());
+        assertThrows(RuntimeException.class, () -> client.generateContent("second"));
+        assertEquals(1, circuitOpen());
+    }
+
+    @Test
+    void serverErrorsAndRateLimitsOpenTheCircuit() {
+        stub.enqueue(status(503), status(429));
+
+        assertThrows(RuntimeException.class, () -> client.generateContent("first"));
+        assertThrows(HttpClientErrorException.TooManyRequests.class, () -> client.generateContent("second"));
+        assertEquals(1, circuitOpen());
+
+        // Short-circuited, the stub never sees the third call
+        IllegalStateException open = assertThrows(IllegalStateException.class, () -> client.generateContent("third"));
+        assertEquals("Gemini circuit is open", open.getMessage());
+        assertEquals(2, stub.requests());
+    }
+
+    @Test
+    void otherClientErrorsLeaveTheCircuitClosed() {
+        stub.enqueue(status(400), status(400), status(400));
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpClientErrorException.BadRequest.class, () -> client.generateContent("bad"));
+        }
+        assertEquals(0, circuitOpen());
+        assertEquals(3, stub.requests());
+    }
+
+    @Test
+    void halfOpenCircuitLetsOneTrialThroughAndClosesOnSuccess() throws Exception {
+        openCircuit();
+        Thread.sleep(OPEN_FOR.toMillis() + 100);
+
+        stub.enqueue(delayed(Duration.ofMillis(200), answer("back again")));
+        CompletableFuture<String> trial = CompletableFuture.supplyAsync(() -> client.generateContent("trial"));
+        Thread.sleep(100);
+        assertThrows(IllegalStateException.class, () -> client.generateContent("while the trial is out"));
+
+        assertEquals("back again", trial.get());
+        assertEquals(0, circuitOpen());
+        stub.enqueue(answer("closed"));
+        assertEquals("closed", client.generateContent("after"));
+    }
+
+    @Test
+    void failedTrialReopensTheCircuit() throws Exception {
+        openCircuit();
+        Thread.sleep(OPEN_FOR.toMillis() + 100);
+
+        stub.enqueue(status(500));
+        assertThrows(RuntimeException.class, () -> client.generateContent("trial"));
+        assertEquals(1, circuitOpen());
+
+        int requests = stub.requests();
+        assertThrows(IllegalStateException.class, () -> client.generateContent("still open"));
+        assertEquals(requests, stub.requests());
+    }
+
+    private void openCircuit() {
+        stub.enqueue(status(500), status(500));
+        assertThrows(RuntimeException.class, () -> client.generateContent("first"));
+        assertThrows(RuntimeException.class, () -> client.generateContent("second"));
+        assertEquals(1, circuitOpen());
+    }
+
+    private double circuitOpen() {
+        return meterRegistry.get("easybook.gemini.circuit.open").gauge().value();
+    }
+}
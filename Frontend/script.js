@@ -8,6 +8,7 @@ let cities = [];
 let theaters = [];
 let shows = [];
 let seats = [];
+let pendingOrderId = null; // Razorpay order whose seats are held, sent again when the checkout is retried
 
 const api = "http://localhost:8080/api";
 const ticketPrice = 200;
@@ -336,8 +337,10 @@ function selectShow(show) {
 // Load seats for selected show
 async function loadSeatsForShow(showId) {
     try {
-        seats = await fetchData(`${api}/seats/${showId}`);
+        const seatMap = await fetchData(`${api}/seats/${showId}`);
+        seats = seatMap.seats || [];
         displaySeats(seats);
+        subscribeSeatUpdates(showId);
         document.getElementById("seatStep").classList.remove('hidden');
         document.getElementById("seatStep").scrollIntoView({ behavior: 'smooth' });
     } catch (error) {
@@ -390,6 +393,58 @@ function displaySeats(seats) {
     updateBookingSummary();
 }
 
+// Live seat availability for the open show
+let seatUpdatesSocket = null;
+
+function subscribeSeatUpdates(showId) {
+    if (seatUpdatesSocket) {
+        const previous = seatUpdatesSocket;
+        seatUpdatesSocket = null;
+        previous.close();
+    }
+    const socket = new WebSocket(api.replace(/^http/, "ws") + "/seat-updates");
+    socket.onopen = () => socket.send(JSON.stringify({ action: "subscribe", showId: showId }));
+    socket.onmessage = (event) => {
+        const update = JSON.parse(event.data);
+        if (update.showId !== showId) return;
+        if (update.type === "snapshot") {
+            const unavailable = new Set(update.unavailable);
+            document.querySelectorAll("#seatsContainer [data-seat-id]").forEach(el => {
+                setSeatAvailability(el, !unavailable.has(Number(el.dataset.seatId)));
+            });
+        } else if (update.type === "delta") {
+            update.unavailable.forEach(id => setSeatAvailability(document.querySelector(`[data-seat-id="${id}"]`), false));
+            update.available.forEach(id => setSeatAvailability(document.querySelector(`[data-seat-id="${id}"]`), true));
+        }
+    };
+    // The server closes a socket that falls behind, resubscribing starts over from a snapshot
+    socket.onclose = () => {
+        if (seatUpdatesSocket === socket) {
+            setTimeout(() => {
+                if (seatUpdatesSocket === socket) subscribeSeatUpdates(showId);
+            }, 1000);
+        }
+    };
+    seatUpdatesSocket = socket;
+}
+
+function setSeatAvailability(seatElement, available) {
+    if (!seatElement || seatElement.classList.contains('selected')) return;
+    const seatId = Number(seatElement.dataset.seatId);
+    const seatNumber = seatElement.dataset.seatNumber;
+    if (available && seatElement.classList.contains('occupied')) {
+        seatElement.classList.remove('occupied');
+        seatElement.classList.add('available');
+        seatElement.onclick = () => toggleSeat(seatElement, seatId, seatNumber);
+        seatElement.title = `Seat ${seatNumber} - Available`;
+    } else if (!available && seatElement.classList.contains('available')) {
+        seatElement.classList.remove('available');
+        seatElement.classList.add('occupied');
+        seatElement.onclick = null;
+        seatElement.title = 'Already booked';
+    }
+}
+
 // Toggle seat selection
 function toggleSeat(seatElement, seatId, seatNumber) {
     if (seatElement.classList.contains('occupied')) return;
@@ -623,55 +678,30 @@ async function processBookingWithPayment() {
             userId: dummyUser.id,
             showId: selectedShow.showId,
             seats: selectedSeats.map(s => s.seatId),
-            totalPrice: totalAmount
+            totalPrice: totalAmount,
+            orderId: pendingOrderId
         };
 
-        // Step 1: Save booking before payment
-         const bookingSaveResponse = await fetch(`${api}/book`, {
-         method: "POST",
-        headers: {
-        "Content-Type": "application/json",
-        "user-id": user.id
-         },
-         body: JSON.stringify(bookingPayload),
-         });
-
-        const bookingData = await bookingSaveResponse.json();
-        console.log("Booking Save Response:", bookingData);
-
-if (bookingData.status !== "success") {
-    throw new Error("Booking save failed: " + bookingData.message);
-}
-
-const actualBookingId = bookingData.bookingId;
-console.log("Booking saved. ID:", actualBookingId);
-        
-        // Create Razorpay order via backend
-        const orderResponse = await fetch(`${api}/payment/create-order`, {
+        // Hold the seats and create the Razorpay order; the seats are only booked once payment is confirmed
+        const orderResponse = await fetch(`${api}/create-booking-order`, {
             method: "POST",
             headers: {
                 "Content-Type": "application/json",
             },
-            body: JSON.stringify({
-                name: currentUser.name,
-                email: currentUser.email,
-                phone: currentUser.phone,
-                movieTitle: selectedMovie.title,
-                theaterName: selectedTheater.name,
-                showTime: selectedShow.showTime || selectedShow.timing || selectedShow.time,
-                seats: selectedSeats.map(s => s.seatNumber).join(', '),
-                amount: totalAmount,
-                showId: selectedShow.showId,
-                seatIds: selectedSeats.map(s => s.seatId)
-            }),
+            body: JSON.stringify(bookingPayload),
         });
 
-        if (!orderResponse.ok) {
-            throw new Error('Failed to create payment order');
+        const orderData = await orderResponse.json();
+        if (orderData.reason === "held" || orderData.reason === "booked") {
+            showErrorMessage("Seats unavailable", orderData.message);
+            return;
+        }
+        if (!orderResponse.ok || orderData.status !== "success") {
+            throw new Error(orderData.message || 'Failed to create payment order');
         }
 
-       const orderData = await orderResponse.json();
-        const razorpayOrderId = orderData.id;
+        const razorpayOrderId = orderData.orderId;
+        pendingOrderId = razorpayOrderId;
       
         const options = {
             key: "rzp_test_1Ly2aFyTN5rllj", // Replace with your actual Razorpay key
@@ -699,18 +729,23 @@ console.log("Booking saved. ID:", actualBookingId);
                 backdropclose: false,
                 escape: false,
                 ondismiss: function () {
+                    releaseHeldSeats(razorpayOrderId);
                     bookBtn.innerHTML = originalText;
                     bookBtn.disabled = false;
                 },
             },
             handler: function (response) {
                console.log("Razorpay Success Response:", response);
-    // Call confirmBookingAfterPayment with Razorpay response + booking ID
-    confirmBookingAfterPayment(response, actualBookingId);
+               pendingOrderId = null;
+    // Call confirmBookingAfterPayment with Razorpay response + booked seats
+    confirmBookingAfterPayment(response, bookingPayload);
             },
         };
 
         const rzp = new Razorpay(options);
+        rzp.on("payment.failed", function (response) {
+            reportPaymentFailure(razorpayOrderId, response.error && response.error.metadata);
+        });
         rzp.open();
         
     } catch (err) {
@@ -726,6 +761,45 @@ console.log("Booking saved. ID:", actualBookingId);
     }
 }
 
+// Gives the seats held for an unpaid order back instead of leaving them held until the hold expires
+async function releaseHeldSeats(orderId) {
+    if (pendingOrderId === orderId) {
+        pendingOrderId = null;
+    }
+    try {
+        await fetch(`${api}/cancel-booking-order`, {
+            method: "POST",
+            headers: {
+                "Content-Type": "application/json",
+            },
+            body: JSON.stringify({ orderId: orderId }),
+        });
+    } catch (error) {
+        console.error("Error releasing held seats:", error);
+    }
+}
+
+async function reportPaymentFailure(orderId, metadata) {
+    if (pendingOrderId === orderId) {
+        pendingOrderId = null;
+    }
+    try {
+        await fetch(`${api}/bookings/update-payment`, {
+            method: "PUT",
+            headers: {
+                "Content-Type": "application/json",
+            },
+            body: JSON.stringify({
+                orderId: orderId,
+                paymentId: metadata ? metadata.payment_id : null,
+                paymentStatus: "FAILED"
+            }),
+        });
+    } catch (error) {
+        console.error("Error reporting failed payment:", error);
+    }
+}
+
 async function updateBookingAfterPayment(bookingId) {
    try {
         const bookingPayload = {
@@ -758,34 +832,20 @@ async function updateBookingAfterPayment(bookingId) {
 }
 
 // Confirm booking after successful payment
-async function confirmBookingAfterPayment(razorpayResponse, bookingId) {
+async function confirmBookingAfterPayment(razorpayResponse, bookingPayload) {
     const bookBtn = document.getElementById("bookNowBtn");
     
     try {
         bookBtn.innerHTML = '<i class="fas fa-spinner fa-spin"></i> Confirming booking...';
 
-         const bookingData = {
-            bookingId: bookingId,
+        // Books the seats held for this order, as expected by the backend
+        const confirmationRequest = {
             paymentId: razorpayResponse.razorpay_payment_id,
-            paymentStatus: "PAID",
-            paymentDate: new Date().toISOString()
+            orderId: razorpayResponse.razorpay_order_id,
+            signature: razorpayResponse.razorpay_signature,
+            bookingData: bookingPayload
         };
 
-        console.log("Booking Payload:", bookingData);
-        if (!bookingData) {
-    console.error("bookingData is null! Cannot confirm booking.");
-    return;
-}
-        
-        // Prepare confirmation request as expected by backend
-        const confirmationRequest = await fetch(`${api}/bookings/update-payment`, {
-            method: "PUT",
-            headers: {
-                "Content-Type": "application/json",
-            },
-            body: JSON.stringify(bookingData),
-        });
-
         console.log('Confirming booking with:', confirmationRequest);
 
         const confirmResponse = await fetch(`${api}/confirm-booking`, {
@@ -793,7 +853,7 @@ async function confirmBookingAfterPayment(razorpayResponse, bookingId) {
             headers: {
                 "Content-Type": "application/json",
             },
-            body: JSON.stringify(bookingData),
+            body: JSON.stringify(confirmationRequest),
         });
 
         if (!confirmResponse.ok) {